@@ -0,0 +1,161 @@
+package xs.test2.datagen;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import xs.test2.datagen.PatientFactory.GeneratedPatient;
+import xs.test2.shared.NameKeys;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Loads synthetic patients, with their PHONE and EMAIL identifiers, straight into Postgres with
+ * COPY. Rows go in batches; each batch copies the patients before their identifiers so the
+ * foreign key holds without deferring constraints. The schema must already exist (start the
+ * application once), and a running application should be restarted afterwards because its
+ * second-level cache does not see rows loaded behind its back.
+ * <p>
+ * Options, all {@code --name=value}: url, user, password, rows (1000000), batch-size (100000),
+ * duplicate-rate (0.05), seed (42), truncate (false) and truth-file, a CSV of
+ * duplicate_id,original_id,kind for measuring match recall.
+ */
+public class PatientDataGenerator {
+
+    private static final String PATIENT_COPY = "COPY patient (id, first_name, last_name, dob, gender, phone_no, email, "
+            + "australian_address, status, version, created_at, updated_at, name_key, name_phonetic) "
+            + "FROM STDIN WITH (FORMAT csv)";
+    private static final String IDENTIFIER_COPY = "COPY patient_identifier (id, patient_id, id_type, id_value) "
+            + "FROM STDIN WITH (FORMAT csv)";
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        String url = options.getOrDefault("url", "jdbc:postgresql://localhost:5432/postgres");
+        String user = options.getOrDefault("user", "postgres");
+        String password = options.getOrDefault("password", "password");
+        long rows = Long.parseLong(options.getOrDefault("rows", "1000000"));
+        int batchSize = Integer.parseInt(options.getOrDefault("batch-size", "100000"));
+        double duplicateRate = Double.parseDouble(options.getOrDefault("duplicate-rate", "0.05"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+
+        PatientFactory factory = new PatientFactory(seed, duplicateRate);
+        Map<PatientFactory.DuplicateKind, Long> duplicates = new EnumMap<>(PatientFactory.DuplicateKind.class);
+        String now = Instant.now().toString();
+
+        try (Connection connection = DriverManager.getConnection(url, user, password);
+             PrintWriter truth = options.containsKey("truth-file")
+                     ? new PrintWriter(Files.newBufferedWriter(Path.of(options.get("truth-file"))))
+                     : null) {
+            if (Boolean.parseBoolean(options.getOrDefault("truncate", "false"))) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("TRUNCATE patient, patient_identifier, patient_match_candidate, "
+                            + "patient_tombstone CASCADE");
+                }
+            }
+            if (truth != null) {
+                truth.println("duplicate_id,original_id,kind");
+            }
+            CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+
+            long start = System.nanoTime();
+            for (long done = 0; done < rows; ) {
+                int size = (int) Math.min(batchSize, rows - done);
+                StringBuilder patients = new StringBuilder(size * 256);
+                StringBuilder identifiers = new StringBuilder(size * 128);
+                for (int i = 0; i < size; i++) {
+                    GeneratedPatient patient = factory.next();
+                    appendPatient(patients, patient, now);
+                    appendIdentifier(identifiers, factory, patient, "PHONE", patient.phoneNo());
+                    appendIdentifier(identifiers, factory, patient, "EMAIL", patient.email());
+                    if (patient.duplicateOf() != null) {
+                        duplicates.merge(patient.duplicateKind(), 1L, Long::sum);
+                        if (truth != null) {
+                            truth.println(patient.id() + "," + patient.duplicateOf() + "," + patient.duplicateKind());
+                        }
+                    }
+                }
+                copyManager.copyIn(PATIENT_COPY, new StringReader(patients.toString()));
+                copyManager.copyIn(IDENTIFIER_COPY, new StringReader(identifiers.toString()));
+                done += size;
+                double seconds = (System.nanoTime() - start) / 1e9;
+                System.out.printf(Locale.ROOT, "%,d / %,d patients (%.0f rows/s)%n", done, rows, done / seconds);
+            }
+
+            analyze(connection);
+            System.out.printf(Locale.ROOT, "Loaded %,d patients in %.1fs, near-duplicates: %s%n",
+                    rows, (System.nanoTime() - start) / 1e9, duplicates);
+        }
+    }
+
+    private static void appendPatient(StringBuilder out, GeneratedPatient patient, String now) {
+        String address = "{\"address\":" + json(patient.address()) + ",\"suburb\":" + json(patient.suburb())
+                + ",\"state\":" + json(patient.state()) + ",\"postcode\":" + json(patient.postcode()) + "}";
+        out.append(patient.id()).append(',')
+                .append(csv(patient.firstName())).append(',')
+                .append(csv(patient.lastName())).append(',')
+                .append(patient.dob()).append(',')
+                .append(patient.gender()).append(',')
+                .append(csv(patient.phoneNo())).append(',')
+                .append(csv(patient.email())).append(',')
+                .append(csv(address)).append(',')
+                .append("ACTIVE,0,").append(now).append(',').append(now).append(',')
+                .append(csv(NameKeys.nameKey(patient.firstName(), patient.lastName()))).append(',')
+                .append(csv(NameKeys.phoneticKey(patient.firstName(), patient.lastName()))).append('\n');
+    }
+
+    private static void appendIdentifier(StringBuilder out, PatientFactory factory, GeneratedPatient patient,
+                                         String idType, String idValue) {
+        if (idValue != null) {
+            out.append(factory.identifierId()).append(',').append(patient.id()).append(',')
+                    .append(idType).append(',').append(csv(idValue)).append('\n');
+        }
+    }
+
+    private static void analyze(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE patient");
+            statement.execute("ANALYZE patient_identifier");
+        }
+    }
+
+    /**
+     * Quotes a CSV field; null stays an unquoted empty field, which COPY reads as NULL.
+     */
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    private static String json(String value) {
+        return value == null ? "null" : "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                options.put(arg.substring(2), "true");
+            } else {
+                options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        return options;
+    }
+}
@@ -0,0 +1,186 @@
+package xs.test2.datagen;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Generates patients from the name, street and suburb lists in /datagen. The lists are ordered
+ * from most to least common and sampled with a quadratic skew, so a handful of names are very
+ * common the way they are in real registers. Phones are produced already normalised (+614...).
+ * <p>
+ * With probability {@code duplicateRate} the next patient is a near-duplicate of a recently
+ * generated one: a copy with a new id in which exactly one of name, dob, email or phone differs.
+ * The same seed produces the same patients, ids included.
+ */
+final class PatientFactory {
+
+    enum DuplicateKind {
+        NAME, DOB, EMAIL, PHONE
+    }
+
+    record GeneratedPatient(UUID id, String firstName, String lastName, LocalDate dob, String gender,
+                            String phoneNo, String email, String address, String suburb, String state,
+                            String postcode, UUID duplicateOf, DuplicateKind duplicateKind) {
+
+        GeneratedPatient duplicate(UUID newId, String firstName, String lastName, LocalDate dob, String phoneNo,
+                                   String email, DuplicateKind kind) {
+            return new GeneratedPatient(newId, firstName, lastName, dob, gender, phoneNo, email,
+                    address, suburb, state, postcode, id, kind);
+        }
+    }
+
+    private static final List<String> EMAIL_DOMAINS = List.of(
+            "gmail.com", "outlook.com", "bigpond.com", "icloud.com", "yahoo.com.au", "optusnet.com.au");
+    private static final LocalDate OLDEST_DOB = LocalDate.of(1925, 1, 1);
+    private static final int DOB_RANGE_DAYS = 100 * 365;
+    private static final int RECENT_CAPACITY = 100_000;
+
+    private final List<String> firstNames = load("first-names.txt");
+    private final List<String> lastNames = load("last-names.txt");
+    private final List<String> streets = load("streets.txt");
+    private final List<String[]> suburbs = load("suburbs.csv").stream().map(line -> line.split(",")).toList();
+
+    private final SplittableRandom random;
+    private final double duplicateRate;
+    private final GeneratedPatient[] recent = new GeneratedPatient[RECENT_CAPACITY];
+    private long generated;
+
+    PatientFactory(long seed, double duplicateRate) {
+        this.random = new SplittableRandom(seed);
+        this.duplicateRate = duplicateRate;
+    }
+
+    GeneratedPatient next() {
+        GeneratedPatient patient;
+        if (generated > 0 && random.nextDouble() < duplicateRate) {
+            patient = nearDuplicate(recent[(int) random.nextLong(Math.min(generated, RECENT_CAPACITY))]);
+        } else {
+            patient = fresh();
+            recent[(int) (generated % RECENT_CAPACITY)] = patient;
+            generated++;
+        }
+        return patient;
+    }
+
+    private GeneratedPatient fresh() {
+        String firstName = skewed(firstNames);
+        String lastName = skewed(lastNames);
+        String[] suburb = suburbs.get(random.nextInt(suburbs.size()));
+        String gender = switch (random.nextInt(100)) {
+            case 0 -> "OTHER";
+            default -> random.nextBoolean() ? "MALE" : "FEMALE";
+        };
+        return new GeneratedPatient(uuid(), firstName, lastName,
+                OLDEST_DOB.plusDays(random.nextInt(DOB_RANGE_DAYS)), gender,
+                random.nextInt(100) < 92 ? mobile() : null,
+                random.nextInt(100) < 85 ? email(firstName, lastName) : null,
+                (1 + random.nextInt(250)) + " " + streets.get(random.nextInt(streets.size())),
+                suburb[0], suburb[1], suburb[2], null, null);
+    }
+
+    private GeneratedPatient nearDuplicate(GeneratedPatient base) {
+        DuplicateKind kind = DuplicateKind.values()[random.nextInt(DuplicateKind.values().length)];
+        return switch (kind) {
+            case NAME -> random.nextBoolean()
+                    ? base.duplicate(uuid(), typo(base.firstName()), base.lastName(), base.dob(), base.phoneNo(), base.email(), kind)
+                    : base.duplicate(uuid(), base.firstName(), typo(base.lastName()), base.dob(), base.phoneNo(), base.email(), kind);
+            case DOB -> base.duplicate(uuid(), base.firstName(), base.lastName(), shiftDob(base.dob()), base.phoneNo(),
+                    base.email(), kind);
+            case EMAIL -> base.duplicate(uuid(), base.firstName(), base.lastName(), base.dob(), base.phoneNo(),
+                    random.nextInt(4) == 0 ? null : email(base.firstName(), base.lastName()), kind);
+            case PHONE -> base.duplicate(uuid(), base.firstName(), base.lastName(), base.dob(),
+                    random.nextInt(4) == 0 ? null : mobile(), base.email(), kind);
+        };
+    }
+
+    UUID identifierId() {
+        return uuid();
+    }
+
+    /**
+     * Random (version 4) UUID drawn from the seeded generator so runs are reproducible.
+     */
+    private UUID uuid() {
+        long msb = (random.nextLong() & ~0xF000L) | 0x4000L;
+        long lsb = (random.nextLong() & ~(0xC000_0000_0000_0000L)) | 0x8000_0000_0000_0000L;
+        return new UUID(msb, lsb);
+    }
+
+    private String skewed(List<String> values) {
+        double u = random.nextDouble();
+        return values.get((int) (u * u * values.size()));
+    }
+
+    private String mobile() {
+        return "+614" + String.format(Locale.ROOT, "%08d", random.nextInt(100_000_000));
+    }
+
+    private String email(String firstName, String lastName) {
+        String local = switch (random.nextInt(3)) {
+            case 0 -> firstName + "." + lastName;
+            case 1 -> firstName.charAt(0) + lastName;
+            default -> firstName + lastName.charAt(0) + random.nextInt(1000);
+        };
+        return local.toLowerCase(Locale.ROOT).replace("'", "") + random.nextInt(100) + "@"
+                + EMAIL_DOMAINS.get(random.nextInt(EMAIL_DOMAINS.size()));
+    }
+
+    /**
+     * A single-character transposition, substitution or deletion, the common keying errors.
+     */
+    private String typo(String name) {
+        StringBuilder value = new StringBuilder(name);
+        int at = 1 + random.nextInt(value.length() - 1);
+        switch (random.nextInt(3)) {
+            case 0 -> {
+                if (at == value.length() - 1) {
+                    at--;
+                }
+                char c = value.charAt(at);
+                value.setCharAt(at, value.charAt(at + 1));
+                value.setCharAt(at + 1, c);
+            }
+            case 1 -> value.setCharAt(at, (char) ('a' + random.nextInt(26)));
+            default -> {
+                if (value.length() > 3) {
+                    value.deleteCharAt(at);
+                } else {
+                    value.append('e');
+                }
+            }
+        }
+        String result = value.toString();
+        return result.equals(name) ? name + "e" : result;
+    }
+
+    /**
+     * Day/month swapped when that is a different valid date, otherwise off by one day.
+     */
+    private LocalDate shiftDob(LocalDate dob) {
+        if (dob.getDayOfMonth() <= 12 && dob.getDayOfMonth() != dob.getMonthValue()) {
+            return LocalDate.of(dob.getYear(), dob.getDayOfMonth(), dob.getMonthValue());
+        }
+        return dob.plusDays(random.nextBoolean() ? 1 : -1);
+    }
+
+    private static List<String> load(String resource) {
+        InputStream input = PatientFactory.class.getResourceAsStream("/datagen/" + resource);
+        if (input == null) {
+            throw new IllegalStateException("Missing resource /datagen/" + resource);
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            return reader.lines().filter(line -> !line.isBlank()).toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
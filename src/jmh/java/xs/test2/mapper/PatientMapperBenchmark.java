@@ -0,0 +1,100 @@
+package xs.test2.mapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import xs.test2.dto.PatientDTO;
+import xs.test2.dto.PatientListEntryDTO;
+import xs.test2.dto.PatientRequestDTO;
+import xs.test2.entity.AustralianAddress;
+import xs.test2.entity.Patient;
+import xs.test2.entity.PatientIdentifier;
+import xs.test2.shared.Gender;
+import xs.test2.shared.IdentifierType;
+import xs.test2.shared.PatientStatus;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PatientMapperBenchmark {
+
+    private AnnotationConfigApplicationContext context;
+    private PatientMapper patientMapper;
+    private Patient patient;
+    private PatientRequestDTO request;
+
+    @Setup
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext(PatientMapperImpl.class, PatientIdentifierMapperImpl.class);
+        patientMapper = context.getBean(PatientMapper.class);
+
+        AustralianAddress address = new AustralianAddress();
+        address.setAddress("123 Main St");
+        address.setSuburb("Sydney");
+        address.setState("NSW");
+        address.setPostcode("2000");
+
+        patient = new Patient();
+        patient.setId(UUID.randomUUID());
+        patient.setFirstName("John");
+        patient.setLastName("Smith");
+        patient.setDob(LocalDate.of(1990, 1, 1));
+        patient.setGender(Gender.MALE);
+        patient.setPhoneNo("+61411111111");
+        patient.setEmail("john.smith@example.com");
+        patient.setAustralianAddress(address);
+        patient.setStatus(PatientStatus.ACTIVE);
+        patient.setIdentifiers(new ArrayList<>());
+        patient.getIdentifiers().add(identifier(IdentifierType.PHONE, "+61411111111"));
+        patient.getIdentifiers().add(identifier(IdentifierType.EMAIL, "john.smith@example.com"));
+        patient.getIdentifiers().add(identifier(IdentifierType.MRN, "MRN-000123"));
+
+        request = patientMapper.toDTO(patient);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public PatientDTO toDTO() {
+        return patientMapper.toDTO(patient);
+    }
+
+    @Benchmark
+    public PatientListEntryDTO toListEntryDTO() {
+        return patientMapper.toListEntryDTO(patient);
+    }
+
+    @Benchmark
+    public Patient toEntity() {
+        return patientMapper.toEntity(request);
+    }
+
+    private PatientIdentifier identifier(IdentifierType type, String value) {
+        PatientIdentifier identifier = new PatientIdentifier();
+        identifier.setId(UUID.randomUUID());
+        identifier.setIdType(type);
+        identifier.setIdValue(value);
+        identifier.setPatient(patient);
+        return identifier;
+    }
+}
@@ -0,0 +1,72 @@
+package xs.test2.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import xs.test2.shared.MatchCandidate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scores one probe against a synthetic candidate list, as autoMatchPatient does for the
+ * rows returned by the candidate query. Each candidate agrees with the probe on each
+ * field with probability {@code agreementRate}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PatientMatchScorerBenchmark {
+
+    @Param({"10", "1000"})
+    private int candidateCount;
+
+    @Param({"0.5"})
+    private double agreementRate;
+
+    private PatientMatchScorer scorer;
+    private MatchCandidate probe;
+    private List<MatchCandidate> candidates;
+
+    @Setup
+    public void setUp() {
+        scorer = new PatientMatchScorer();
+        probe = new MatchCandidate(UUID.randomUUID(), "John", "Smith", LocalDate.of(1990, 1, 1),
+                "john.smith@example.com", "+61411111111");
+
+        Random random = new Random(42);
+        candidates = new ArrayList<>(candidateCount);
+        for (int i = 0; i < candidateCount; i++) {
+            boolean sameName = random.nextDouble() < agreementRate;
+            candidates.add(new MatchCandidate(UUID.randomUUID(),
+                    sameName ? probe.firstName() : "Jane",
+                    sameName ? probe.lastName() : "Doe" + i,
+                    random.nextDouble() < agreementRate ? probe.dob() : probe.dob().plusDays(1 + i),
+                    random.nextDouble() < agreementRate ? probe.email() : "user" + i + "@example.com",
+                    random.nextDouble() < agreementRate ? probe.phoneNo() : "+6140000" + (1000 + i)));
+        }
+    }
+
+    @Benchmark
+    public void scoreCandidates(Blackhole blackhole) {
+        for (MatchCandidate candidate : candidates) {
+            blackhole.consume(scorer.score(probe, candidate));
+        }
+    }
+}
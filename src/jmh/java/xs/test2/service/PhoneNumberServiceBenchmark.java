@@ -0,0 +1,47 @@
+package xs.test2.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PhoneNumberServiceBenchmark {
+
+    @Param({
+            "+61 412 345 678",
+            "0412 345 678",
+            "(0412) 345 678",
+            "412345678",
+            "61412345678",
+            "+44 20 7946 0958",
+            "ABC-DEF"
+    })
+    private String input;
+
+    private PhoneNumberService phoneNumberService;
+
+    @Setup
+    public void setUp() {
+        phoneNumberService = new PhoneNumberService("+61");
+    }
+
+    @Benchmark
+    public String normalize() {
+        return phoneNumberService.normalize(input);
+    }
+}
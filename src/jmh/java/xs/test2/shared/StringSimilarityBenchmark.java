@@ -0,0 +1,117 @@
+package xs.test2.shared;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares pairs the way PatientMatchScorer does: Jaro-Winkler on the first-name part of
+ * "first last" name keys, and Levenshtein (max one edit) on email addresses. A quarter of the
+ * pairs are misspellings of each other and the rest are unrelated. threshold=0 forces the full
+ * Jaro-Winkler computation; 0.9 is the default name-similarity-threshold and lets most pairs exit early.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class StringSimilarityBenchmark {
+
+    private static final String[] FIRST_NAMES = {"john", "catherine", "mohammed", "olivia", "alexander",
+            "nguyen", "charlotte", "william", "isabella", "christopher"};
+    private static final String[] LAST_NAMES = {"smith", "oakes", "nguyen", "williams", "brown",
+            "papadopoulos", "wilson", "taylor", "anderson", "fitzgerald"};
+    private static final String[] DOMAINS = {"example.com", "gmail.com", "outlook.com", "health.gov.au"};
+    private static final int PAIRS = 1000;
+
+    @Param({"scalar", "vector"})
+    private String kernel;
+
+    @Param({"0.0", "0.9"})
+    private double threshold;
+
+    private StringSimilarity.MatchKernel matchKernel;
+    private String[] leftNames;
+    private String[] rightNames;
+    private int[] leftSplits;
+    private int[] rightSplits;
+    private String[] leftEmails;
+    private String[] rightEmails;
+
+    @Setup
+    public void setUp() {
+        if (kernel.equals("vector") && !StringSimilarity.isVectorized()) {
+            throw new IllegalStateException("jdk.incubator.vector is not available");
+        }
+        matchKernel = kernel.equals("vector") ? StringSimilarity.KERNEL : StringSimilarity.SCALAR;
+
+        Random random = new Random(42);
+        leftNames = new String[PAIRS];
+        rightNames = new String[PAIRS];
+        leftSplits = new int[PAIRS];
+        rightSplits = new int[PAIRS];
+        leftEmails = new String[PAIRS];
+        rightEmails = new String[PAIRS];
+        for (int i = 0; i < PAIRS; i++) {
+            String first = pick(FIRST_NAMES, random);
+            String last = pick(LAST_NAMES, random);
+            boolean similar = random.nextInt(4) == 0;
+            String otherFirst = similar ? misspell(first, random) : pick(FIRST_NAMES, random);
+            leftNames[i] = first + ' ' + last;
+            rightNames[i] = otherFirst + ' ' + last;
+            leftSplits[i] = first.length();
+            rightSplits[i] = otherFirst.length();
+
+            leftEmails[i] = first + '.' + last + '@' + pick(DOMAINS, random);
+            rightEmails[i] = similar ? dropChar(leftEmails[i], random)
+                    : pick(FIRST_NAMES, random) + '.' + pick(LAST_NAMES, random) + '@' + pick(DOMAINS, random);
+        }
+    }
+
+    @Benchmark
+    public void jaroWinkler(Blackhole blackhole) {
+        for (int i = 0; i < PAIRS; i++) {
+            blackhole.consume(StringSimilarity.jaroWinkler(matchKernel, leftNames[i], 0, leftSplits[i],
+                    rightNames[i], 0, rightSplits[i], threshold));
+        }
+    }
+
+    @Benchmark
+    public void levenshtein(Blackhole blackhole) {
+        for (int i = 0; i < PAIRS; i++) {
+            blackhole.consume(StringSimilarity.levenshtein(leftEmails[i], rightEmails[i], 1));
+        }
+    }
+
+    private static String pick(String[] values, Random random) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static String misspell(String name, Random random) {
+        char[] chars = name.toCharArray();
+        int i = random.nextInt(chars.length - 1);
+        char swap = chars[i];
+        chars[i] = chars[i + 1];
+        chars[i + 1] = swap;
+        return new String(chars);
+    }
+
+    /** One edit, so the pair is within the scorer's default email-max-edits. */
+    private static String dropChar(String email, Random random) {
+        int i = random.nextInt(email.length());
+        return email.substring(0, i) + email.substring(i + 1);
+    }
+}
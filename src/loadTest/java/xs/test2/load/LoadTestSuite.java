@@ -0,0 +1,193 @@
+package xs.test2.load;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import tools.jackson.databind.SerializationFeature;
+import tools.jackson.databind.json.JsonMapper;
+import xs.test2.Test2Application;
+import xs.test2.load.MixedWorkload.Operation;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Repeatable latency run: starts Postgres in a container, boots the application on a random
+ * port, imports loadTest.patients synthetic patients through /api/patient/import, waits for the
+ * match pipeline to drain (queued, running and deferred matches), then runs the mixed workload
+ * for loadTest.warmup (discarded) and loadTest.duration. Per-operation throughput and percentiles
+ * go to results.json and the full latency distribution to one .hgrm file per operation in
+ * loadTest.reportDir, so runs of two builds with the same settings can be compared directly.
+ * <p>
+ * Other settings: loadTest.clients (64), loadTest.seed (42) and loadTest.profile (none), e.g.
+ * virtual-threads.
+ */
+public class LoadTestSuite {
+
+    private static final int IMPORT_BATCH = 50_000;
+
+    public static void main(String[] args) throws Exception {
+        int patients = Integer.getInteger("loadTest.patients", 10_000);
+        int clients = Integer.getInteger("loadTest.clients", 64);
+        long seed = Long.getLong("loadTest.seed", 42L);
+        Duration warmup = Duration.parse("PT" + System.getProperty("loadTest.warmup", "15s"));
+        Duration duration = Duration.parse("PT" + System.getProperty("loadTest.duration", "60s"));
+        String profile = System.getProperty("loadTest.profile", "");
+        Path reportDir = Path.of(System.getProperty("loadTest.reportDir", "build/reports/loadtest"));
+
+        try (PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:18.2").withDatabaseName("loadtest")) {
+            postgres.start();
+            List<String> appArgs = new ArrayList<>(List.of(
+                    "--server.port=0",
+                    "--spring.datasource.url=" + postgres.getJdbcUrl(),
+                    "--spring.datasource.username=" + postgres.getUsername(),
+                    "--spring.datasource.password=" + postgres.getPassword(),
+                    "--logging.level.xs.test2=WARN"));
+            if (!profile.isBlank()) {
+                appArgs.add("--spring.profiles.active=" + profile);
+            }
+
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(Test2Application.class)
+                    .run(appArgs.toArray(String[]::new))) {
+                String baseUrl = "http://localhost:" + context.getBean(Environment.class).getProperty("local.server.port");
+
+                long seedStart = System.nanoTime();
+                seed(baseUrl, patients, new SplittableRandom(seed));
+                long matchRejected = awaitMatchPipeline(context.getBean(MeterRegistry.class));
+                List<String> ids = context.getBean(JdbcTemplate.class).queryForList("SELECT id::text FROM patient", String.class);
+                System.out.printf(Locale.ROOT, "Seeded %d patients in %.1fs%n", ids.size(), (System.nanoTime() - seedStart) / 1e9);
+
+                MixedWorkload workload = new MixedWorkload(baseUrl, ids);
+                workload.run(clients, warmup, seed);
+                workload.reset();
+                long runStart = System.nanoTime();
+                workload.run(clients, duration, seed + clients);
+                double seconds = (System.nanoTime() - runStart) / 1e9;
+
+                Map<String, Object> settings = new LinkedHashMap<>();
+                settings.put("patients", ids.size());
+                settings.put("clients", clients);
+                settings.put("seed", seed);
+                settings.put("warmup", warmup.toString());
+                settings.put("duration", duration.toString());
+                settings.put("profile", profile);
+                settings.put("matchRejected", matchRejected);
+                writeReport(reportDir, settings, workload, seconds);
+            }
+        }
+    }
+
+    private static void seed(String baseUrl, int patients, SplittableRandom random) throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newHttpClient();
+        for (int offset = 0; offset < patients; offset += IMPORT_BATCH) {
+            StringBuilder ndjson = new StringBuilder();
+            for (int i = offset; i < Math.min(patients, offset + IMPORT_BATCH); i++) {
+                ndjson.append(SyntheticPatients.json(random)).append('\n');
+            }
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/patient/import"))
+                    .header("Content-Type", "application/x-ndjson")
+                    .timeout(Duration.ofMinutes(30))
+                    .POST(HttpRequest.BodyPublishers.ofString(ndjson.toString()))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Import failed with " + response.statusCode() + ": " + response.body());
+            }
+        }
+    }
+
+    /**
+     * Waits until nothing is queued, running or deferred, twice in a row so a worker between
+     * taking a patient off the queue and starting it isn't mistaken for an idle pipeline. Returns
+     * how many submissions were deferred because the queue was full; those are matched by the
+     * catch-up sweep, but the seed then ran under back-pressure and the run is worth a note.
+     */
+    private static long awaitMatchPipeline(MeterRegistry meterRegistry) throws InterruptedException {
+        int idlePolls = 0;
+        while (idlePolls < 2) {
+            Thread.sleep(200);
+            boolean idle = meterRegistry.get("patient.match.queue.depth").gauge().value() == 0
+                    && meterRegistry.get("patient.match.active").gauge().value() == 0
+                    && meterRegistry.get("patient.match.deferred").gauge().value() == 0;
+            idlePolls = idle ? idlePolls + 1 : 0;
+        }
+        long rejected = (long) meterRegistry.get("patient.match.rejected").counter().count();
+        if (rejected > 0) {
+            System.err.printf(Locale.ROOT, "WARNING: %d match submissions overflowed the queue while seeding "
+                    + "and were matched by the catch-up sweep; raise test2.match-pipeline.queue-capacity "
+                    + "to seed without back-pressure%n", rejected);
+        }
+        return rejected;
+    }
+
+    private static void writeReport(Path reportDir, Map<String, Object> settings, MixedWorkload workload,
+                                    double seconds) throws IOException {
+        Files.createDirectories(reportDir);
+        Map<String, Object> operations = new LinkedHashMap<>();
+        Histogram total = new Histogram(3);
+        long totalErrors = 0;
+
+        System.out.printf(Locale.ROOT, "%-17s %9s %7s %9s %9s %9s %9s %9s%n",
+                "operation", "req/s", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = workload.histograms().get(operation);
+            long errors = workload.errors().get(operation).sum();
+            total.add(histogram);
+            totalErrors += errors;
+            operations.put(operation.name(), summary(histogram, errors, seconds));
+            print(operation.name(), histogram, errors, seconds);
+            try (PrintStream out = new PrintStream(reportDir.resolve(operation.name() + ".hgrm").toFile())) {
+                histogram.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+        print("TOTAL", total, totalErrors, seconds);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("timestamp", Instant.now().toString());
+        report.put("settings", settings);
+        report.put("total", summary(total, totalErrors, seconds));
+        report.put("operations", operations);
+        JsonMapper.builder().enable(SerializationFeature.INDENT_OUTPUT).build()
+                .writeValue(reportDir.resolve("results.json").toFile(), report);
+        System.out.println("Report written to " + reportDir.toAbsolutePath());
+    }
+
+    private static Map<String, Object> summary(Histogram histogram, long errors, double seconds) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", histogram.getTotalCount());
+        summary.put("errors", errors);
+        summary.put("throughputPerSecond", histogram.getTotalCount() / seconds);
+        summary.put("meanMs", histogram.getMean() / 1000.0);
+        summary.put("p50Ms", histogram.getValueAtPercentile(50) / 1000.0);
+        summary.put("p90Ms", histogram.getValueAtPercentile(90) / 1000.0);
+        summary.put("p99Ms", histogram.getValueAtPercentile(99) / 1000.0);
+        summary.put("p999Ms", histogram.getValueAtPercentile(99.9) / 1000.0);
+        summary.put("maxMs", histogram.getMaxValue() / 1000.0);
+        return summary;
+    }
+
+    private static void print(String name, Histogram histogram, long errors, double seconds) {
+        System.out.printf(Locale.ROOT, "%-17s %9.1f %7d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                name, histogram.getTotalCount() / seconds, errors,
+                histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(90) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0, histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMaxValue() / 1000.0);
+    }
+}
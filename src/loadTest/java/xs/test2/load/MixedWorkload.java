@@ -0,0 +1,160 @@
+package xs.test2.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop mixed workload over the /api/patient endpoints. Each client is a virtual thread
+ * that picks the next operation by weight from its own seeded random, so two runs with the same
+ * settings issue the same request sequence per client. Latencies are recorded in microseconds
+ * into one HdrHistogram per operation.
+ */
+class MixedWorkload {
+
+    enum Operation {
+        GET_PATIENT(35),
+        SEARCH_BY_NAME(15),
+        SCROLL(10),
+        LIST_IDENTIFIERS(10),
+        CREATE_PATIENT(15),
+        ADD_IDENTIFIER(10),
+        UPDATE_PATIENT(5);
+
+        final int weight;
+
+        Operation(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final int TOTAL_WEIGHT = Arrays.stream(Operation.values()).mapToInt(o -> o.weight).sum();
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final List<String> patientIds;
+    private final Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+
+    MixedWorkload(String baseUrl, List<String> patientIds) {
+        this.baseUrl = baseUrl;
+        this.patientIds = patientIds;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        for (Operation operation : Operation.values()) {
+            histograms.put(operation, new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    Map<Operation, Histogram> histograms() {
+        return histograms;
+    }
+
+    Map<Operation, LongAdder> errors() {
+        return errors;
+    }
+
+    void reset() {
+        histograms.values().forEach(Histogram::reset);
+        errors.values().forEach(LongAdder::reset);
+    }
+
+    /**
+     * Runs {@code clients} concurrent clients until {@code duration} has elapsed.
+     */
+    void run(int clients, Duration duration, long seed) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                SplittableRandom random = new SplittableRandom(seed + c);
+                executor.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        execute(pick(random), random);
+                    }
+                });
+            }
+            executor.shutdown();
+            executor.awaitTermination(duration.toSeconds() + 60, TimeUnit.SECONDS);
+        }
+    }
+
+    private static Operation pick(SplittableRandom random) {
+        int roll = random.nextInt(TOTAL_WEIGHT);
+        for (Operation operation : Operation.values()) {
+            roll -= operation.weight;
+            if (roll < 0) {
+                return operation;
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    private void execute(Operation operation, SplittableRandom random) {
+        HttpRequest request = request(operation, random);
+        long begin = System.nanoTime();
+        boolean ok;
+        try {
+            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            ok = status < 400;
+        } catch (Exception e) {
+            ok = false;
+        }
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - begin);
+        if (ok) {
+            histograms.get(operation).recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+        } else {
+            errors.get(operation).increment();
+        }
+    }
+
+    private HttpRequest request(Operation operation, SplittableRandom random) {
+        String id = patientIds.get(random.nextInt(patientIds.size()));
+        return switch (operation) {
+            case GET_PATIENT -> get("/api/patient/" + id);
+            case SEARCH_BY_NAME -> {
+                String lastName = SyntheticPatients.LAST_NAMES.get(random.nextInt(SyntheticPatients.LAST_NAMES.size()));
+                yield get("/api/patient?size=20&name=" + lastName.substring(0, 3 + random.nextInt(lastName.length() - 2)));
+            }
+            case SCROLL -> get("/api/patient/scroll?size=20");
+            case LIST_IDENTIFIERS -> get("/api/patient/" + id + "/identifier");
+            case CREATE_PATIENT -> send("POST", "/api/patient", SyntheticPatients.json(random));
+            case ADD_IDENTIFIER -> send("POST", "/api/patient/" + id + "/identifier",
+                    "{\"idType\":\"MRN\",\"idValue\":\"MRN-%d\"}".formatted(random.nextLong(1_000_000_000L)));
+            case UPDATE_PATIENT -> send("PUT", "/api/patient/" + id, SyntheticPatients.json(random));
+        };
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+    }
+
+    private HttpRequest send(String method, String path, String body) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+}
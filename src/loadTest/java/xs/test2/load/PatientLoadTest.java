@@ -0,0 +1,165 @@
+package xs.test2.load;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Drives a running instance with a burst of concurrent patient reads, one virtual thread per
+ * simulated client, and prints throughput and latency percentiles. Start the application with
+ * the virtual-threads profile against the docker-compose Postgres, then run {@code ./gradlew loadTest}.
+ * <p>
+ * Settings are system properties: loadTest.baseUrl (http://localhost:8080), loadTest.concurrency
+ * (10000), loadTest.requestsPerClient (10) and loadTest.seedPatients (200).
+ */
+public class PatientLoadTest {
+
+    private static final Pattern ID = Pattern.compile("\"id\":\"([0-9a-f-]{36})\"");
+
+    private final HttpClient client;
+    private final String baseUrl;
+
+    PatientLoadTest(String baseUrl) {
+        this.baseUrl = baseUrl;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = System.getProperty("loadTest.baseUrl", "http://localhost:8080");
+        int concurrency = Integer.getInteger("loadTest.concurrency", 10_000);
+        int requestsPerClient = Integer.getInteger("loadTest.requestsPerClient", 10);
+        int seedPatients = Integer.getInteger("loadTest.seedPatients", 200);
+
+        PatientLoadTest loadTest = new PatientLoadTest(baseUrl);
+        List<String> ids = loadTest.seed(seedPatients);
+        System.out.printf("Seeded %d patients against %s%n", ids.size(), baseUrl);
+
+        loadTest.run(ids, Math.min(concurrency, 1_000), 1).print("warm-up");
+        loadTest.run(ids, concurrency, requestsPerClient).print("%d concurrent clients".formatted(concurrency));
+    }
+
+    List<String> seed(int count) throws Exception {
+        List<String> ids = new ArrayList<>(count);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<String>> created = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String body = """
+                        {"firstName":"Load%d","lastName":"Test","dob":"1980-01-01","gender":"FEMALE","phoneNo":"04%08d"}
+                        """.formatted(i, i);
+                created.add(executor.submit(() -> send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/patient"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build())));
+            }
+            for (Future<String> future : created) {
+                Matcher matcher = ID.matcher(future.get());
+                if (matcher.find()) {
+                    ids.add(matcher.group(1));
+                }
+            }
+        }
+        if (ids.isEmpty()) {
+            throw new IllegalStateException("Could not create any patients at " + baseUrl);
+        }
+        return ids;
+    }
+
+    Result run(List<String> ids, int concurrency, int requestsPerClient) throws InterruptedException {
+        long[][] latencies = new long[concurrency][];
+        LongAdder ok = new LongAdder();
+        LongAdder throttled = new LongAdder();
+        LongAdder failed = new LongAdder();
+        CountDownLatch ready = new CountDownLatch(concurrency);
+        CountDownLatch start = new CountDownLatch(1);
+
+        long elapsed;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < concurrency; c++) {
+                int slot = c;
+                executor.submit(() -> {
+                    long[] own = new long[requestsPerClient];
+                    latencies[slot] = own;
+                    ready.countDown();
+                    start.await();
+                    for (int r = 0; r < requestsPerClient; r++) {
+                        String id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/patient/" + id))
+                                .timeout(Duration.ofSeconds(30))
+                                .GET()
+                                .build();
+                        long begin = System.nanoTime();
+                        try {
+                            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                            if (status == 200) {
+                                ok.increment();
+                            } else if (status == 503) {
+                                throttled.increment();
+                            } else {
+                                failed.increment();
+                            }
+                        } catch (Exception e) {
+                            failed.increment();
+                        }
+                        own[r] = System.nanoTime() - begin;
+                    }
+                    return null;
+                });
+            }
+            ready.await();
+            long begin = System.nanoTime();
+            start.countDown();
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.HOURS);
+            elapsed = System.nanoTime() - begin;
+        }
+
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(all, elapsed, ok.sum(), throttled.sum(), failed.sum());
+    }
+
+    private String send(HttpRequest request) throws Exception {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 400) {
+            throw new IllegalStateException(request.uri() + " returned " + response.statusCode());
+        }
+        return response.body();
+    }
+
+    record Result(long[] sortedLatencies, long elapsedNanos, long ok, long throttled, long failed) {
+
+        long percentile(double p) {
+            if (sortedLatencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(p / 100.0 * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.clamp(index, 0, sortedLatencies.length - 1)];
+        }
+
+        void print(String label) {
+            double seconds = elapsedNanos / 1e9;
+            System.out.printf(Locale.ROOT, "%s: %d requests in %.2fs, %.0f req/s (ok %d, 503 %d, failed %d)%n",
+                    label, sortedLatencies.length, seconds, sortedLatencies.length / seconds, ok, throttled, failed);
+            System.out.printf(Locale.ROOT, "  latency ms p50 %.1f  p90 %.1f  p99 %.1f  max %.1f%n",
+                    percentile(50) / 1e6, percentile(90) / 1e6, percentile(99) / 1e6, percentile(100) / 1e6);
+        }
+    }
+}
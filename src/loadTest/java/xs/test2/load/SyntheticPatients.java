@@ -0,0 +1,48 @@
+package xs.test2.load;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Small pool of plausible patient values for the load tests. Names are drawn from fixed lists
+ * so name searches in the workload always have matches.
+ */
+final class SyntheticPatients {
+
+    static final List<String> FIRST_NAMES = List.of(
+            "Oliver", "Charlotte", "William", "Amelia", "Jack", "Isla", "Noah", "Olivia", "Thomas", "Mia",
+            "James", "Ava", "Lucas", "Grace", "Henry", "Chloe", "Ethan", "Zoe", "Samuel", "Ruby",
+            "Liam", "Sophie", "Harrison", "Emily", "Alexander", "Matilda", "Joshua", "Harper", "Daniel", "Ella");
+
+    static final List<String> LAST_NAMES = List.of(
+            "Smith", "Jones", "Williams", "Brown", "Wilson", "Taylor", "Johnson", "White", "Martin", "Anderson",
+            "Thompson", "Nguyen", "Thomas", "Walker", "Harris", "Lee", "Ryan", "Robinson", "Kelly", "King",
+            "Davis", "Wright", "Evans", "Roberts", "Green", "Hall", "Wood", "Jackson", "Clarke", "Patel");
+
+    private static final List<String> SUBURBS = List.of(
+            "Parramatta", "Fitzroy", "Toowong", "Glenelg", "Fremantle", "Sandy Bay", "Braddon", "Nightcliff");
+
+    private static final List<String> STATES = List.of("NSW", "VIC", "QLD", "SA", "WA", "TAS", "ACT", "NT");
+
+    private static final LocalDate OLDEST_DOB = LocalDate.of(1930, 1, 1);
+
+    private SyntheticPatients() {
+    }
+
+    static String json(SplittableRandom random) {
+        String firstName = FIRST_NAMES.get(random.nextInt(FIRST_NAMES.size()));
+        String lastName = LAST_NAMES.get(random.nextInt(LAST_NAMES.size()));
+        int place = random.nextInt(SUBURBS.size());
+        return ("{\"firstName\":\"%s\",\"lastName\":\"%s\",\"dob\":\"%s\",\"gender\":\"%s\"," +
+                "\"phoneNo\":\"04%08d\",\"email\":\"%s.%s%d@example.com\"," +
+                "\"australianAddress\":{\"address\":\"%d %s St\",\"suburb\":\"%s\",\"state\":\"%s\",\"postcode\":\"%04d\"}}")
+                .formatted(firstName, lastName, OLDEST_DOB.plusDays(random.nextInt(90 * 365)),
+                        random.nextBoolean() ? "MALE" : "FEMALE",
+                        random.nextInt(100_000_000),
+                        firstName.toLowerCase(Locale.ROOT), lastName.toLowerCase(Locale.ROOT), random.nextInt(10_000),
+                        1 + random.nextInt(300), LAST_NAMES.get(random.nextInt(LAST_NAMES.size())),
+                        SUBURBS.get(place), STATES.get(place), 800 + random.nextInt(7000));
+    }
+}
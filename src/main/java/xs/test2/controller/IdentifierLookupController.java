@@ -0,0 +1,40 @@
+package xs.test2.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import xs.test2.dto.IdentifierLookupDTO;
+import xs.test2.dto.NewPatientIdentifierDTO;
+import xs.test2.service.IdentifierLookupService;
+import xs.test2.shared.IdentifierType;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+public class IdentifierLookupController {
+
+    private final IdentifierLookupService identifierLookupService;
+
+    public IdentifierLookupController(IdentifierLookupService identifierLookupService) {
+        this.identifierLookupService = identifierLookupService;
+    }
+
+    @GetMapping("/api/identifier")
+    public IdentifierLookupDTO lookup(@RequestParam IdentifierType idType, @RequestParam String idValue) {
+        List<UUID> patientIds = identifierLookupService.findPatientIds(idType, idValue);
+        if (patientIds.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Identifier not found");
+        }
+        return new IdentifierLookupDTO(idType, idValue, patientIds);
+    }
+
+    @PostMapping("/api/identifier/lookup")
+    public List<IdentifierLookupDTO> lookup(@RequestBody List<NewPatientIdentifierDTO> identifiers) {
+        return identifierLookupService.findPatientIds(identifiers);
+    }
+}
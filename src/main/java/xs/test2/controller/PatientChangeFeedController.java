@@ -0,0 +1,37 @@
+package xs.test2.controller;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import xs.test2.dto.CursorSliceDTO;
+import xs.test2.dto.PatientChangeDTO;
+import xs.test2.mapper.PatientMapper;
+import xs.test2.service.PatientChangeFeedService;
+
+@RestController
+public class PatientChangeFeedController {
+
+    private final PatientChangeFeedService patientChangeFeedService;
+    private final PatientMapper patientMapper;
+
+    public PatientChangeFeedController(PatientChangeFeedService patientChangeFeedService, PatientMapper patientMapper) {
+        this.patientChangeFeedService = patientChangeFeedService;
+        this.patientMapper = patientMapper;
+    }
+
+    @GetMapping("/api/patient/changes")
+    public CursorSliceDTO<PatientChangeDTO> getChanges(
+            @RequestParam(required = false) String token,
+            @RequestParam(defaultValue = "100") int size) {
+
+        return patientChangeFeedService.getChanges(token, size).map(change -> {
+            PatientChangeDTO dto = new PatientChangeDTO();
+            dto.setPatientId(change.patientId());
+            dto.setDeleted(change.deleted());
+            if (change.patient() != null) {
+                dto.setPatient(patientMapper.toDTO(change.patient()));
+            }
+            return dto;
+        });
+    }
+}
@@ -4,17 +4,24 @@ import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import xs.test2.dto.CursorSliceDTO;
 import xs.test2.dto.NewPatientIdentifierDTO;
+import xs.test2.dto.PatientMergeRequestDTO;
 import xs.test2.dto.PatientRequestDTO;
 import xs.test2.dto.PatientDTO;
 import xs.test2.dto.PatientIdentifierDTO;
@@ -29,6 +36,8 @@ import java.util.UUID;
 @RestController
 public class PatientController {
 
+    private static final int MAX_IDENTIFIER_ADD_ATTEMPTS = 3;
+
     private final PatientService patientService;
     private final PatientMapper patientMapper;
     private final PatientIdentifierMapper patientIdentifierMapper;
@@ -52,6 +61,15 @@ public class PatientController {
         return patients.map(patientMapper::toListEntryDTO);
     }
 
+    @GetMapping("/api/patient/scroll")
+    public CursorSliceDTO<PatientListEntryDTO> scrollPatients(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+
+        return patientService.scrollPatients(name, cursor, size).map(patientMapper::toListEntryDTO);
+    }
+
     @PostMapping("/api/patient")
     @ResponseStatus(HttpStatus.CREATED)
     public PatientDTO createPatient(@Valid @RequestBody PatientRequestDTO dto) {
@@ -60,21 +78,35 @@ public class PatientController {
     }
 
     @PutMapping("/api/patient/{id}")
-    public PatientDTO updatePatient(@PathVariable UUID id, @Valid @RequestBody PatientRequestDTO dto) {
-        var patient = patientService.updatePatient(id, dto);
-        return patientMapper.toDTO(patient);
+    public ResponseEntity<PatientDTO> updatePatient(@PathVariable UUID id, @Valid @RequestBody PatientRequestDTO dto,
+                                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        var patient = patientService.updatePatient(id, dto, PatientETags.parseIfMatch(ifMatch));
+        return PatientETags.withETag(ResponseEntity.ok(), patient).body(patientMapper.toDTO(patient));
     }
 
     @GetMapping("/api/patient/{id}")
-    public PatientDTO getPatient(@PathVariable UUID id) {
-        var patient = patientService.getPatientById(id);
-        return patientMapper.toDTO(patient);
+    public ResponseEntity<PatientDTO> getPatient(@PathVariable UUID id) {
+        var patient = patientService.getPatientWithIdentifiers(id);
+        return PatientETags.withETag(ResponseEntity.ok(), patient).body(patientMapper.toDTO(patient));
     }
 
     @DeleteMapping("/api/patient/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void deletePatient(@PathVariable UUID id) {
-        patientService.deletePatient(id);
+    public void deletePatient(@PathVariable UUID id,
+                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        patientService.deletePatient(id, PatientETags.parseIfMatch(ifMatch));
+    }
+
+    @PostMapping("/api/patient/merge")
+    public PatientDTO mergePatients(@Valid @RequestBody PatientMergeRequestDTO dto) {
+        var patient = patientService.mergePatients(dto.getKeepPatientId(), dto.getDiscardPatientId());
+        return patientMapper.toDTO(patient);
+    }
+
+    @PostMapping("/api/patient/merge/bulk")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void mergePatients(@RequestBody List<PatientMergeRequestDTO> merges) {
+        patientService.mergePatients(merges);
     }
 
     @GetMapping("/api/patient/{id}/identifier")
@@ -85,12 +117,24 @@ public class PatientController {
                 .toList();
     }
 
+    /**
+     * Adding an identifier the patient already has returns the existing one, so a request
+     * that lost a race with a concurrent edit of the same patient is simply retried.
+     */
     @PostMapping("/api/patient/{id}/identifier")
     @ResponseStatus(HttpStatus.CREATED)
     public PatientIdentifierDTO addIdentifier(@PathVariable UUID id,
                                                @Valid @RequestBody NewPatientIdentifierDTO dto) {
-        var identifier = patientService.addIdentifier(id, dto);
-        return patientIdentifierMapper.toDTO(identifier);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                var identifier = patientService.addIdentifier(id, dto);
+                return patientIdentifierMapper.toDTO(identifier);
+            } catch (OptimisticLockingFailureException | DataIntegrityViolationException e) {
+                if (attempt == MAX_IDENTIFIER_ADD_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
     }
 
     @DeleteMapping("/api/patient/{id}/identifier/{identifierId}")
@@ -0,0 +1,43 @@
+package xs.test2.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import xs.test2.dto.PatientDedupeJobDTO;
+import xs.test2.mapper.PatientDedupeJobMapper;
+import xs.test2.service.PatientDedupeService;
+
+import java.util.UUID;
+
+@RestController
+public class PatientDedupeController {
+
+    private final PatientDedupeService patientDedupeService;
+    private final PatientDedupeJobMapper patientDedupeJobMapper;
+
+    public PatientDedupeController(PatientDedupeService patientDedupeService,
+                                   PatientDedupeJobMapper patientDedupeJobMapper) {
+        this.patientDedupeService = patientDedupeService;
+        this.patientDedupeJobMapper = patientDedupeJobMapper;
+    }
+
+    @PostMapping("/api/dedupe-job")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public PatientDedupeJobDTO startJob() {
+        return patientDedupeJobMapper.toDTO(patientDedupeService.startJob());
+    }
+
+    @GetMapping("/api/dedupe-job/{id}")
+    public PatientDedupeJobDTO getJob(@PathVariable UUID id) {
+        return patientDedupeJobMapper.toDTO(patientDedupeService.getJob(id));
+    }
+
+    @PostMapping("/api/dedupe-job/{id}/resume")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public PatientDedupeJobDTO resumeJob(@PathVariable UUID id) {
+        return patientDedupeJobMapper.toDTO(patientDedupeService.resumeJob(id));
+    }
+}
@@ -0,0 +1,40 @@
+package xs.test2.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+import xs.test2.entity.Patient;
+
+/**
+ * Patient ETags are the entity version as a strong tag, e.g. {@code "3"}.
+ */
+final class PatientETags {
+
+    private PatientETags() {
+    }
+
+    static ResponseEntity.BodyBuilder withETag(ResponseEntity.BodyBuilder builder, Patient patient) {
+        return patient.getVersion() != null ? builder.eTag("\"" + patient.getVersion() + "\"") : builder;
+    }
+
+    /**
+     * Returns the version a write must match, or null when the header is absent or {@code *}.
+     */
+    static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        try {
+            return Long.parseLong(tag);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Patient has been modified");
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package xs.test2.controller;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import xs.test2.service.PatientExportService;
+
+import java.time.Instant;
+
+@RestController
+public class PatientExportController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final PatientExportService patientExportService;
+
+    public PatientExportController(PatientExportService patientExportService) {
+        this.patientExportService = patientExportService;
+    }
+
+    @GetMapping("/api/patient/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant modifiedSince) {
+
+        StreamingResponseBody body = output -> patientExportService.exportNdjson(modifiedSince, output);
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+}
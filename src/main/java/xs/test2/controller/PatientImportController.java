@@ -0,0 +1,29 @@
+package xs.test2.controller;
+
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import xs.test2.dto.PatientImportResultDTO;
+import xs.test2.service.PatientImportService;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+public class PatientImportController {
+
+    private final PatientImportService patientImportService;
+
+    public PatientImportController(PatientImportService patientImportService) {
+        this.patientImportService = patientImportService;
+    }
+
+    @PostMapping(value = "/api/patient/import", consumes = "application/x-ndjson")
+    public PatientImportResultDTO importNdjson(InputStream body) throws IOException {
+        return patientImportService.importNdjson(body);
+    }
+
+    @PostMapping(value = "/api/patient/import", consumes = "text/csv")
+    public PatientImportResultDTO importCsv(InputStream body) throws IOException {
+        return patientImportService.importCsv(body);
+    }
+}
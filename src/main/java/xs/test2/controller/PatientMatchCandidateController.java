@@ -0,0 +1,45 @@
+package xs.test2.controller;
+
+import jakarta.validation.Valid;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import xs.test2.dto.PatientBatchMatchDTO;
+import xs.test2.dto.PatientMatchCandidateDTO;
+import xs.test2.dto.PatientRequestDTO;
+import xs.test2.mapper.PatientMatchCandidateMapper;
+import xs.test2.service.PatientBatchMatchService;
+import xs.test2.service.PatientMatchPipeline;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+public class PatientMatchCandidateController {
+
+    private final PatientMatchPipeline patientMatchPipeline;
+    private final PatientMatchCandidateMapper patientMatchCandidateMapper;
+    private final PatientBatchMatchService patientBatchMatchService;
+
+    public PatientMatchCandidateController(PatientMatchPipeline patientMatchPipeline,
+                                           PatientMatchCandidateMapper patientMatchCandidateMapper,
+                                           PatientBatchMatchService patientBatchMatchService) {
+        this.patientMatchPipeline = patientMatchPipeline;
+        this.patientMatchCandidateMapper = patientMatchCandidateMapper;
+        this.patientBatchMatchService = patientBatchMatchService;
+    }
+
+    @GetMapping("/api/patient/{id}/match-candidate")
+    public List<PatientMatchCandidateDTO> getMatchCandidates(@PathVariable UUID id) {
+        return patientMatchPipeline.getCandidates(id).stream()
+                .map(patientMatchCandidateMapper::toDTO)
+                .toList();
+    }
+
+    @PostMapping("/api/patient/match")
+    public List<PatientBatchMatchDTO> matchRegistrations(@RequestBody List<@Valid PatientRequestDTO> registrations) {
+        return patientBatchMatchService.match(registrations);
+    }
+}
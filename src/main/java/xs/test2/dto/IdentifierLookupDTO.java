@@ -0,0 +1,48 @@
+package xs.test2.dto;
+
+import xs.test2.shared.IdentifierType;
+
+import java.util.List;
+import java.util.UUID;
+
+public class IdentifierLookupDTO {
+
+    private IdentifierType idType;
+
+    private String idValue;
+
+    private List<UUID> patientIds;
+
+    public IdentifierLookupDTO() {
+    }
+
+    public IdentifierLookupDTO(IdentifierType idType, String idValue, List<UUID> patientIds) {
+        this.idType = idType;
+        this.idValue = idValue;
+        this.patientIds = patientIds;
+    }
+
+    public IdentifierType getIdType() {
+        return idType;
+    }
+
+    public void setIdType(IdentifierType idType) {
+        this.idType = idType;
+    }
+
+    public String getIdValue() {
+        return idValue;
+    }
+
+    public void setIdValue(String idValue) {
+        this.idValue = idValue;
+    }
+
+    public List<UUID> getPatientIds() {
+        return patientIds;
+    }
+
+    public void setPatientIds(List<UUID> patientIds) {
+        this.patientIds = patientIds;
+    }
+}
@@ -0,0 +1,34 @@
+package xs.test2.dto;
+
+import java.util.List;
+
+public class PatientBatchMatchDTO {
+
+    private int index;
+
+    private List<PatientMatchDTO> matches;
+
+    public PatientBatchMatchDTO() {
+    }
+
+    public PatientBatchMatchDTO(int index, List<PatientMatchDTO> matches) {
+        this.index = index;
+        this.matches = matches;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public List<PatientMatchDTO> getMatches() {
+        return matches;
+    }
+
+    public void setMatches(List<PatientMatchDTO> matches) {
+        this.matches = matches;
+    }
+}
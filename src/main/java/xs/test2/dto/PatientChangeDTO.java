@@ -0,0 +1,36 @@
+package xs.test2.dto;
+
+import java.util.UUID;
+
+public class PatientChangeDTO {
+
+    private UUID patientId;
+
+    private boolean deleted;
+
+    private PatientDTO patient;
+
+    public UUID getPatientId() {
+        return patientId;
+    }
+
+    public void setPatientId(UUID patientId) {
+        this.patientId = patientId;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(boolean deleted) {
+        this.deleted = deleted;
+    }
+
+    public PatientDTO getPatient() {
+        return patient;
+    }
+
+    public void setPatient(PatientDTO patient) {
+        this.patient = patient;
+    }
+}
@@ -0,0 +1,109 @@
+package xs.test2.dto;
+
+import xs.test2.shared.DedupeJobStatus;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public class PatientDedupeJobDTO {
+
+    private UUID id;
+
+    private DedupeJobStatus status;
+
+    private long blocksTotal;
+
+    private long blocksProcessed;
+
+    private long blocksSkipped;
+
+    private long pairsWritten;
+
+    private String lastBlockKey;
+
+    private Instant startedAt;
+
+    private Instant finishedAt;
+
+    private String errorMessage;
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public DedupeJobStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(DedupeJobStatus status) {
+        this.status = status;
+    }
+
+    public long getBlocksTotal() {
+        return blocksTotal;
+    }
+
+    public void setBlocksTotal(long blocksTotal) {
+        this.blocksTotal = blocksTotal;
+    }
+
+    public long getBlocksProcessed() {
+        return blocksProcessed;
+    }
+
+    public void setBlocksProcessed(long blocksProcessed) {
+        this.blocksProcessed = blocksProcessed;
+    }
+
+    public long getBlocksSkipped() {
+        return blocksSkipped;
+    }
+
+    public void setBlocksSkipped(long blocksSkipped) {
+        this.blocksSkipped = blocksSkipped;
+    }
+
+    public long getPairsWritten() {
+        return pairsWritten;
+    }
+
+    public void setPairsWritten(long pairsWritten) {
+        this.pairsWritten = pairsWritten;
+    }
+
+    public String getLastBlockKey() {
+        return lastBlockKey;
+    }
+
+    public void setLastBlockKey(String lastBlockKey) {
+        this.lastBlockKey = lastBlockKey;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(Instant finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+}
@@ -0,0 +1,32 @@
+package xs.test2.dto;
+
+public class PatientImportErrorDTO {
+
+    private long line;
+
+    private String message;
+
+    public PatientImportErrorDTO() {
+    }
+
+    public PatientImportErrorDTO(long line, String message) {
+        this.line = line;
+        this.message = message;
+    }
+
+    public long getLine() {
+        return line;
+    }
+
+    public void setLine(long line) {
+        this.line = line;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
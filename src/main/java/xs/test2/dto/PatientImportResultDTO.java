@@ -0,0 +1,37 @@
+package xs.test2.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class PatientImportResultDTO {
+
+    private long imported;
+
+    private long failed;
+
+    private List<PatientImportErrorDTO> errors = new ArrayList<>();
+
+    public long getImported() {
+        return imported;
+    }
+
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public List<PatientImportErrorDTO> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<PatientImportErrorDTO> errors) {
+        this.errors = errors;
+    }
+}
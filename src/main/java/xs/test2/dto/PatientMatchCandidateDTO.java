@@ -0,0 +1,39 @@
+package xs.test2.dto;
+
+import xs.test2.shared.MatchScore;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public class PatientMatchCandidateDTO {
+
+    private UUID candidatePatientId;
+
+    private MatchScore score;
+
+    private Instant matchedAt;
+
+    public UUID getCandidatePatientId() {
+        return candidatePatientId;
+    }
+
+    public void setCandidatePatientId(UUID candidatePatientId) {
+        this.candidatePatientId = candidatePatientId;
+    }
+
+    public MatchScore getScore() {
+        return score;
+    }
+
+    public void setScore(MatchScore score) {
+        this.score = score;
+    }
+
+    public Instant getMatchedAt() {
+        return matchedAt;
+    }
+
+    public void setMatchedAt(Instant matchedAt) {
+        this.matchedAt = matchedAt;
+    }
+}
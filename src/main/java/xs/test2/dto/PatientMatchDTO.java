@@ -0,0 +1,36 @@
+package xs.test2.dto;
+
+import xs.test2.shared.MatchScore;
+
+import java.util.UUID;
+
+public class PatientMatchDTO {
+
+    private UUID candidatePatientId;
+
+    private MatchScore score;
+
+    public PatientMatchDTO() {
+    }
+
+    public PatientMatchDTO(UUID candidatePatientId, MatchScore score) {
+        this.candidatePatientId = candidatePatientId;
+        this.score = score;
+    }
+
+    public UUID getCandidatePatientId() {
+        return candidatePatientId;
+    }
+
+    public void setCandidatePatientId(UUID candidatePatientId) {
+        this.candidatePatientId = candidatePatientId;
+    }
+
+    public MatchScore getScore() {
+        return score;
+    }
+
+    public void setScore(MatchScore score) {
+        this.score = score;
+    }
+}
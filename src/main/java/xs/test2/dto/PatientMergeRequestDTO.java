@@ -0,0 +1,30 @@
+package xs.test2.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.util.UUID;
+
+public class PatientMergeRequestDTO {
+
+    @NotNull
+    private UUID keepPatientId;
+
+    @NotNull
+    private UUID discardPatientId;
+
+    public UUID getKeepPatientId() {
+        return keepPatientId;
+    }
+
+    public void setKeepPatientId(UUID keepPatientId) {
+        this.keepPatientId = keepPatientId;
+    }
+
+    public UUID getDiscardPatientId() {
+        return discardPatientId;
+    }
+
+    public void setDiscardPatientId(UUID discardPatientId) {
+        this.discardPatientId = discardPatientId;
+    }
+}
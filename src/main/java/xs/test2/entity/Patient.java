@@ -1,18 +1,33 @@
 package xs.test2.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.UpdateTimestamp;
 import org.hibernate.type.SqlTypes;
 import xs.test2.shared.Gender;
+import xs.test2.shared.NameKeys;
 import xs.test2.shared.PatientStatus;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "patient")
+@Table(name = "patient", indexes = {
+        @Index(name = "idx_patient_updated_at", columnList = "updated_at"),
+        @Index(name = "idx_patient_change_txid", columnList = "change_txid, id"),
+        @Index(name = "idx_patient_name_phonetic", columnList = "name_phonetic"),
+        @Index(name = "idx_patient_dob", columnList = "dob"),
+        @Index(name = "idx_patient_email", columnList = "email"),
+        @Index(name = "idx_patient_phone_no", columnList = "phone_no")
+})
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Patient {
 
     @Id
@@ -41,6 +56,35 @@ public class Patient {
     @Column(nullable = false)
     private PatientStatus status;
 
+    @Version
+    @ColumnDefault("0")
+    private Long version;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private Instant createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
+    /**
+     * Id of the last transaction that wrote this row, set by the trg_patient_change_txid
+     * trigger (schema.sql). Orders the change feed.
+     */
+    @Column(name = "change_txid", insertable = false, updatable = false)
+    private Long changeTxid;
+
+    /**
+     * Normalised and phonetic forms of the name ({@link NameKeys}), recomputed before every
+     * insert and update. Rows written outside Hibernate are filled in by PatientNameKeyBackfill.
+     */
+    @Column(name = "name_key")
+    private String nameKey;
+
+    @Column(name = "name_phonetic")
+    private String namePhonetic;
+
     @OneToMany(mappedBy = "keepPatient", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<PatientMergeHistory> keepMergeHistories = new ArrayList<>();
 
@@ -48,6 +92,7 @@ public class Patient {
     private List<PatientMergeHistory> discardMergeHistories = new ArrayList<>();
 
     @OneToMany(mappedBy = "patient", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private List<PatientIdentifier> identifiers = new ArrayList<>();
 
     public UUID getId() {
@@ -122,6 +167,38 @@ public class Patient {
         this.status = status;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public Long getChangeTxid() {
+        return changeTxid;
+    }
+
+    public void setChangeTxid(Long changeTxid) {
+        this.changeTxid = changeTxid;
+    }
+
     public List<PatientMergeHistory> getKeepMergeHistories() {
         return keepMergeHistories;
     }
@@ -145,4 +222,27 @@ public class Patient {
     public void setIdentifiers(List<PatientIdentifier> identifiers) {
         this.identifiers = identifiers;
     }
+
+    public String getNameKey() {
+        return nameKey;
+    }
+
+    public void setNameKey(String nameKey) {
+        this.nameKey = nameKey;
+    }
+
+    public String getNamePhonetic() {
+        return namePhonetic;
+    }
+
+    public void setNamePhonetic(String namePhonetic) {
+        this.namePhonetic = namePhonetic;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void updateNameKeys() {
+        nameKey = NameKeys.nameKey(firstName, lastName);
+        namePhonetic = NameKeys.phoneticKey(firstName, lastName);
+    }
 }
@@ -0,0 +1,124 @@
+package xs.test2.entity;
+
+import jakarta.persistence.*;
+import xs.test2.shared.DedupeJobStatus;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Entity
+@Table(name = "patient_dedupe_job")
+public class PatientDedupeJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private DedupeJobStatus status;
+
+    @Column(name = "blocks_total", nullable = false)
+    private long blocksTotal;
+
+    @Column(name = "blocks_processed", nullable = false)
+    private long blocksProcessed;
+
+    @Column(name = "blocks_skipped", nullable = false)
+    private long blocksSkipped;
+
+    @Column(name = "pairs_written", nullable = false)
+    private long pairsWritten;
+
+    @Column(name = "last_block_key", columnDefinition = "text")
+    private String lastBlockKey;
+
+    @Column(name = "started_at", nullable = false)
+    private Instant startedAt;
+
+    @Column(name = "finished_at")
+    private Instant finishedAt;
+
+    @Column(name = "error_message", columnDefinition = "text")
+    private String errorMessage;
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public DedupeJobStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(DedupeJobStatus status) {
+        this.status = status;
+    }
+
+    public long getBlocksTotal() {
+        return blocksTotal;
+    }
+
+    public void setBlocksTotal(long blocksTotal) {
+        this.blocksTotal = blocksTotal;
+    }
+
+    public long getBlocksProcessed() {
+        return blocksProcessed;
+    }
+
+    public void setBlocksProcessed(long blocksProcessed) {
+        this.blocksProcessed = blocksProcessed;
+    }
+
+    public long getBlocksSkipped() {
+        return blocksSkipped;
+    }
+
+    public void setBlocksSkipped(long blocksSkipped) {
+        this.blocksSkipped = blocksSkipped;
+    }
+
+    public long getPairsWritten() {
+        return pairsWritten;
+    }
+
+    public void setPairsWritten(long pairsWritten) {
+        this.pairsWritten = pairsWritten;
+    }
+
+    public String getLastBlockKey() {
+        return lastBlockKey;
+    }
+
+    public void setLastBlockKey(String lastBlockKey) {
+        this.lastBlockKey = lastBlockKey;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(Instant finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+}
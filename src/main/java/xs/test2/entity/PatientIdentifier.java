@@ -1,16 +1,20 @@
 package xs.test2.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import xs.test2.shared.IdentifierType;
 
 import java.util.UUID;
 
 @Entity
 @Table(name = "patient_identifier", indexes = {
-        @Index(name = "idx_patient_id", columnList = "patient_id")
+        @Index(name = "idx_patient_id", columnList = "patient_id"),
+        @Index(name = "idx_patient_identifier_type_value", columnList = "id_type, id_value, patient_id")
 }, uniqueConstraints = {
         @UniqueConstraint(name = "uk_patient_id_type_value", columnNames = {"patient_id", "id_type", "id_value"})
 })
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class PatientIdentifier {
 
     @Id
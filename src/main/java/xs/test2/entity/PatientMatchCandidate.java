@@ -0,0 +1,73 @@
+package xs.test2.entity;
+
+import jakarta.persistence.*;
+import xs.test2.shared.MatchScore;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Entity
+@Table(name = "patient_match_candidate", indexes = {
+        @Index(name = "idx_patient_match_candidate_candidate_patient_id", columnList = "candidate_patient_id")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_patient_match_candidate_pair", columnNames = {"patient_id", "candidate_patient_id"})
+})
+public class PatientMatchCandidate {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "patient_id", nullable = false)
+    private UUID patientId;
+
+    @Column(name = "candidate_patient_id", nullable = false)
+    private UUID candidatePatientId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private MatchScore score;
+
+    @Column(name = "matched_at", nullable = false)
+    private Instant matchedAt;
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public UUID getPatientId() {
+        return patientId;
+    }
+
+    public void setPatientId(UUID patientId) {
+        this.patientId = patientId;
+    }
+
+    public UUID getCandidatePatientId() {
+        return candidatePatientId;
+    }
+
+    public void setCandidatePatientId(UUID candidatePatientId) {
+        this.candidatePatientId = candidatePatientId;
+    }
+
+    public MatchScore getScore() {
+        return score;
+    }
+
+    public void setScore(MatchScore score) {
+        this.score = score;
+    }
+
+    public Instant getMatchedAt() {
+        return matchedAt;
+    }
+
+    public void setMatchedAt(Instant matchedAt) {
+        this.matchedAt = matchedAt;
+    }
+}
@@ -0,0 +1,51 @@
+package xs.test2.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Written by the trg_patient_tombstone trigger (schema.sql) when a patient row is
+ * deleted, so the change feed can report deletes.
+ */
+@Entity
+@Table(name = "patient_tombstone", indexes = {
+        @Index(name = "idx_patient_tombstone_change_txid", columnList = "change_txid, patient_id")
+})
+public class PatientTombstone {
+
+    @Id
+    @Column(name = "patient_id")
+    private UUID patientId;
+
+    @Column(name = "change_txid", nullable = false)
+    private long changeTxid;
+
+    @Column(name = "deleted_at", nullable = false)
+    private Instant deletedAt;
+
+    public UUID getPatientId() {
+        return patientId;
+    }
+
+    public void setPatientId(UUID patientId) {
+        this.patientId = patientId;
+    }
+
+    public long getChangeTxid() {
+        return changeTxid;
+    }
+
+    public void setChangeTxid(long changeTxid) {
+        this.changeTxid = changeTxid;
+    }
+
+    public Instant getDeletedAt() {
+        return deletedAt;
+    }
+
+    public void setDeletedAt(Instant deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+}
@@ -0,0 +1,10 @@
+package xs.test2.event;
+
+import xs.test2.shared.IdentifierType;
+
+/**
+ * Published by PatientService whenever an identifier is added to or removed from a patient.
+ * {@code idValue} is the stored (normalised) value.
+ */
+public record IdentifierChangedEvent(IdentifierType idType, String idValue) {
+}
@@ -0,0 +1,16 @@
+package xs.test2.event;
+
+import xs.test2.shared.MatchCandidate;
+
+import java.util.UUID;
+
+/**
+ * Published by PatientService whenever a patient's matchable fields change.
+ * {@code snapshot} is null when the patient was deleted.
+ */
+public record PatientChangedEvent(UUID patientId, MatchCandidate snapshot) {
+
+    public boolean deleted() {
+        return snapshot == null;
+    }
+}
@@ -0,0 +1,11 @@
+package xs.test2.mapper;
+
+import org.mapstruct.Mapper;
+import xs.test2.dto.PatientDedupeJobDTO;
+import xs.test2.entity.PatientDedupeJob;
+
+@Mapper(componentModel = "spring")
+public interface PatientDedupeJobMapper {
+
+    PatientDedupeJobDTO toDTO(PatientDedupeJob job);
+}
@@ -15,6 +15,12 @@ public interface PatientMapper {
     @Mapping(target = "identifiers", ignore = true)
     @Mapping(target = "keepMergeHistories", ignore = true)
     @Mapping(target = "discardMergeHistories", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "changeTxid", ignore = true)
+    @Mapping(target = "nameKey", ignore = true)
+    @Mapping(target = "namePhonetic", ignore = true)
     Patient toEntity(PatientRequestDTO dto);
 
     @Mapping(target = "identifiers", source = "identifiers")
@@ -0,0 +1,11 @@
+package xs.test2.mapper;
+
+import org.mapstruct.Mapper;
+import xs.test2.dto.PatientMatchCandidateDTO;
+import xs.test2.entity.PatientMatchCandidate;
+
+@Mapper(componentModel = "spring")
+public interface PatientMatchCandidateMapper {
+
+    PatientMatchCandidateDTO toDTO(PatientMatchCandidate candidate);
+}
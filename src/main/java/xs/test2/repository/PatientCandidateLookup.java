@@ -0,0 +1,26 @@
+package xs.test2.repository;
+
+import xs.test2.shared.MatchCandidate;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface PatientCandidateLookup {
+
+    /**
+     * Patients sharing at least one blocking key (phonetic name, dob, email, phone) with the
+     * probe, excluding the probe itself.
+     */
+    List<MatchCandidate> findMatchCandidates(MatchCandidate probe);
+
+    List<MatchCandidate> findMatchCandidatesByIdIn(Collection<UUID> ids);
+
+    /**
+     * Patients having any of the given keys, in one statement, for matching a whole batch of
+     * probes at once.
+     */
+    List<MatchCandidate> findMatchCandidatesByKeys(Collection<String> namePhonetics, Collection<LocalDate> dobs,
+                                                   Collection<String> emails, Collection<String> phoneNos);
+}
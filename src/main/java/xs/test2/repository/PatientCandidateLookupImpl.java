@@ -0,0 +1,159 @@
+package xs.test2.repository;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.query.NativeQuery;
+import xs.test2.entity.Patient;
+import xs.test2.shared.MatchCandidate;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.UUID;
+
+/**
+ * Builds the candidate query from the keys the probe actually has: one SELECT per key, each
+ * answered by its own index (idx_patient_name_phonetic, idx_patient_dob, idx_patient_email,
+ * idx_patient_phone_no), combined with UNION. Rows are projected straight into MatchCandidate,
+ * so neither the entity nor its jsonb address is loaded, and there are at most fifteen
+ * statement shapes for the driver and the planner to cache. The batch variant binds each key
+ * as an array ({@code = ANY(:keys)}) so its statement text doesn't depend on the batch size.
+ */
+public class PatientCandidateLookupImpl implements PatientCandidateLookup {
+
+    static final String CANDIDATE_COLUMNS = "id, first_name, last_name, dob, email, phone_no, name_key, name_phonetic";
+
+    // Merged patients are kept for history but must never be proposed again.
+    static final String ACTIVE = "status = 'ACTIVE'";
+
+    private final EntityManager entityManager;
+
+    public PatientCandidateLookupImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<MatchCandidate> findMatchCandidates(MatchCandidate probe) {
+        String sql = candidateSql(probe);
+        if (sql == null) {
+            return List.of();
+        }
+        NativeQuery<MatchCandidate> query = candidateQuery(sql);
+        if (probe.id() != null) {
+            query.setParameter("id", probe.id());
+        }
+        if (probe.namePhonetic() != null) {
+            query.setParameter("namePhonetic", probe.namePhonetic());
+        }
+        if (probe.dob() != null) {
+            query.setParameter("dob", probe.dob());
+        }
+        if (probe.email() != null) {
+            query.setParameter("email", probe.email());
+        }
+        if (probe.phoneNo() != null) {
+            query.setParameter("phoneNo", probe.phoneNo());
+        }
+        return query.getResultList();
+    }
+
+    @Override
+    public List<MatchCandidate> findMatchCandidatesByIdIn(Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return candidateQuery("SELECT " + CANDIDATE_COLUMNS + " FROM patient WHERE id IN (:ids) AND " + ACTIVE)
+                .setParameterList("ids", ids)
+                .getResultList();
+    }
+
+    @Override
+    public List<MatchCandidate> findMatchCandidatesByKeys(Collection<String> namePhonetics, Collection<LocalDate> dobs,
+                                                          Collection<String> emails, Collection<String> phoneNos) {
+        StringJoiner branches = new StringJoiner(" UNION ");
+        if (!namePhonetics.isEmpty()) {
+            branches.add(branch("name_phonetic = ANY(:namePhonetics)", ""));
+        }
+        if (!dobs.isEmpty()) {
+            branches.add(branch("dob = ANY(:dobs)", ""));
+        }
+        if (!emails.isEmpty()) {
+            branches.add(branch("email = ANY(:emails)", ""));
+        }
+        if (!phoneNos.isEmpty()) {
+            branches.add(branch("phone_no = ANY(:phoneNos)", ""));
+        }
+        if (branches.length() == 0) {
+            return List.of();
+        }
+
+        NativeQuery<MatchCandidate> query = candidateQuery(branches.toString());
+        if (!namePhonetics.isEmpty()) {
+            query.setParameter("namePhonetics", namePhonetics.toArray(String[]::new));
+        }
+        if (!dobs.isEmpty()) {
+            query.setParameter("dobs", dobs.toArray(LocalDate[]::new));
+        }
+        if (!emails.isEmpty()) {
+            query.setParameter("emails", emails.toArray(String[]::new));
+        }
+        if (!phoneNos.isEmpty()) {
+            query.setParameter("phoneNos", phoneNos.toArray(String[]::new));
+        }
+        return query.getResultList();
+    }
+
+    /**
+     * The UNION of one lookup per non-null key of the probe, or null when it has none.
+     */
+    static String candidateSql(MatchCandidate probe) {
+        String excludeProbe = probe.id() != null ? " AND id <> :id" : "";
+        StringJoiner branches = new StringJoiner(" UNION ");
+        if (probe.namePhonetic() != null) {
+            branches.add(branch("name_phonetic = :namePhonetic", excludeProbe));
+        }
+        if (probe.dob() != null) {
+            branches.add(branch("dob = :dob", excludeProbe));
+        }
+        if (probe.email() != null) {
+            branches.add(branch("email = :email", excludeProbe));
+        }
+        if (probe.phoneNo() != null) {
+            branches.add(branch("phone_no = :phoneNo", excludeProbe));
+        }
+        return branches.length() > 0 ? branches.toString() : null;
+    }
+
+    private static String branch(String predicate, String excludeProbe) {
+        return "SELECT " + CANDIDATE_COLUMNS + " FROM patient WHERE " + predicate + " AND " + ACTIVE + excludeProbe;
+    }
+
+    @SuppressWarnings("unchecked")
+    private NativeQuery<MatchCandidate> candidateQuery(String sql) {
+        NativeQuery<Object[]> query = entityManager.createNativeQuery(sql).unwrap(NativeQuery.class);
+        return query.addScalar("id", UUID.class)
+                .addScalar("first_name", String.class)
+                .addScalar("last_name", String.class)
+                .addScalar("dob", LocalDate.class)
+                .addScalar("email", String.class)
+                .addScalar("phone_no", String.class)
+                .addScalar("name_key", String.class)
+                .addScalar("name_phonetic", String.class)
+                .addSynchronizedEntityClass(Patient.class)
+                .setTupleTransformer((tuple, aliases) -> toCandidate(tuple));
+    }
+
+    private static MatchCandidate toCandidate(Object[] row) {
+        UUID id = (UUID) row[0];
+        String firstName = (String) row[1];
+        String lastName = (String) row[2];
+        LocalDate dob = (LocalDate) row[3];
+        String email = (String) row[4];
+        String phoneNo = (String) row[5];
+        if (row[6] == null) {
+            // Not yet filled in by PatientNameKeyBackfill.
+            return new MatchCandidate(id, firstName, lastName, dob, email, phoneNo);
+        }
+        return new MatchCandidate(id, firstName, lastName, dob, email, phoneNo, (String) row[6], (String) row[7]);
+    }
+}
@@ -0,0 +1,11 @@
+package xs.test2.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import xs.test2.entity.PatientDedupeJob;
+
+import java.util.UUID;
+
+@Repository
+public interface PatientDedupeJobRepository extends JpaRepository<PatientDedupeJob, UUID> {
+}
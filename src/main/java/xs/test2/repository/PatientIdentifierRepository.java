@@ -1,11 +1,26 @@
 package xs.test2.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import xs.test2.entity.PatientIdentifier;
+import xs.test2.shared.IdentifierOwner;
+import xs.test2.shared.IdentifierType;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 @Repository
-public interface PatientIdentifierRepository extends JpaRepository<PatientIdentifier, UUID> {
+public interface PatientIdentifierRepository extends JpaRepository<PatientIdentifier, UUID>,
+        PatientIdentifierRowUpdates {
+
+    @Query("SELECT i.patient.id FROM PatientIdentifier i WHERE i.idType = :idType AND i.idValue = :idValue")
+    List<UUID> findPatientIds(@Param("idType") IdentifierType idType, @Param("idValue") String idValue);
+
+    @Query("SELECT new xs.test2.shared.IdentifierOwner(i.idType, i.idValue, i.patient.id) " +
+           "FROM PatientIdentifier i WHERE i.idType = :idType AND i.idValue IN :idValues")
+    List<IdentifierOwner> findOwners(@Param("idType") IdentifierType idType,
+            @Param("idValues") Collection<String> idValues);
 }
@@ -0,0 +1,28 @@
+package xs.test2.repository;
+
+import java.util.UUID;
+
+/**
+ * Set-based identifier statements that bypass the Patient.identifiers collection. Each one
+ * evicts exactly the identifier rows it changed and the identifiers collections of the
+ * patients involved from the second-level cache.
+ */
+public interface PatientIdentifierRowUpdates {
+
+    /**
+     * Deletes the discard patient's identifiers that the keep patient already has, so the
+     * move that follows can't violate uk_patient_id_type_value.
+     */
+    int deleteDuplicatesOf(UUID keepId, UUID discardId);
+
+    int movePatientIdentifiers(UUID keepId, UUID discardId);
+
+    /**
+     * Single-row maintenance used by PatientService.updatePatient. Unlike the merge statements
+     * these do not touch the persistence context: the caller still holds the managed Patient whose
+     * field changes are flushed afterwards.
+     */
+    int deleteIdentifier(UUID patientId, String idType, String idValue);
+
+    int insertIdentifierIfAbsent(UUID patientId, String idType, String idValue);
+}
@@ -0,0 +1,81 @@
+package xs.test2.repository;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import xs.test2.entity.Patient;
+import xs.test2.entity.PatientIdentifier;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The merge statements flush pending changes first and clear the persistence context
+ * afterwards, since managed patients and collections no longer match the rows.
+ */
+public class PatientIdentifierRowUpdatesImpl implements PatientIdentifierRowUpdates {
+
+    static final String IDENTIFIERS_ROLE = Patient.class.getName() + ".identifiers";
+
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+
+    public PatientIdentifierRowUpdatesImpl(EntityManager entityManager, JdbcTemplate jdbcTemplate) {
+        this.entityManager = entityManager;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int deleteDuplicatesOf(UUID keepId, UUID discardId) {
+        entityManager.flush();
+        List<UUID> deleted = jdbcTemplate.queryForList(
+                "DELETE FROM patient_identifier d WHERE d.patient_id = ? " +
+                "AND EXISTS (SELECT 1 FROM patient_identifier k WHERE k.patient_id = ? " +
+                "AND k.id_type = d.id_type AND k.id_value = d.id_value) RETURNING d.id",
+                UUID.class, discardId, keepId);
+        entityManager.clear();
+        evict(deleted, discardId);
+        return deleted.size();
+    }
+
+    @Override
+    public int movePatientIdentifiers(UUID keepId, UUID discardId) {
+        entityManager.flush();
+        List<UUID> moved = jdbcTemplate.queryForList(
+                "UPDATE patient_identifier SET patient_id = ? WHERE patient_id = ? RETURNING id",
+                UUID.class, keepId, discardId);
+        entityManager.clear();
+        evict(moved, keepId, discardId);
+        return moved.size();
+    }
+
+    @Override
+    public int deleteIdentifier(UUID patientId, String idType, String idValue) {
+        List<UUID> deleted = jdbcTemplate.queryForList(
+                "DELETE FROM patient_identifier WHERE patient_id = ? AND id_type = ? AND id_value = ? RETURNING id",
+                UUID.class, patientId, idType, idValue);
+        evict(deleted, patientId);
+        return deleted.size();
+    }
+
+    @Override
+    public int insertIdentifierIfAbsent(UUID patientId, String idType, String idValue) {
+        int inserted = jdbcTemplate.update(
+                "INSERT INTO patient_identifier (id, patient_id, id_type, id_value) " +
+                "VALUES (gen_random_uuid(), ?, ?, ?) " +
+                "ON CONFLICT (patient_id, id_type, id_value) DO NOTHING",
+                patientId, idType, idValue);
+        evict(List.of(), patientId);
+        return inserted;
+    }
+
+    void evict(List<UUID> identifierIds, UUID... patientIds) {
+        SecondLevelCacheEviction.evict(entityManager, cache -> {
+            for (UUID identifierId : identifierIds) {
+                cache.evictEntityData(PatientIdentifier.class, identifierId);
+            }
+            for (UUID patientId : patientIds) {
+                cache.evictCollectionData(IDENTIFIERS_ROLE, patientId);
+            }
+        });
+    }
+}
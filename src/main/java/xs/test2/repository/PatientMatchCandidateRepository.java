@@ -0,0 +1,36 @@
+package xs.test2.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import xs.test2.entity.PatientMatchCandidate;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface PatientMatchCandidateRepository extends JpaRepository<PatientMatchCandidate, UUID> {
+
+    List<PatientMatchCandidate> findByPatientIdOrderByScoreAscCandidatePatientIdAsc(UUID patientId);
+
+    @Modifying
+    @Query("DELETE FROM PatientMatchCandidate c WHERE c.patientId = :patientId OR c.candidatePatientId = :patientId")
+    int deleteInvolving(@Param("patientId") UUID patientId);
+
+    @Modifying
+    @Query("DELETE FROM PatientMatchCandidate c WHERE (c.patientId = :patientId AND c.candidatePatientId NOT IN :keep) " +
+           "OR (c.candidatePatientId = :patientId AND c.patientId NOT IN :keep)")
+    int deleteInvolvingExcept(@Param("patientId") UUID patientId, @Param("keep") Collection<UUID> keep);
+
+    @Modifying
+    @Query(value = "INSERT INTO patient_match_candidate (id, patient_id, candidate_patient_id, score, matched_at) " +
+           "VALUES (gen_random_uuid(), :patientId, :candidatePatientId, :score, :matchedAt) " +
+           "ON CONFLICT (patient_id, candidate_patient_id) " +
+           "DO UPDATE SET score = EXCLUDED.score, matched_at = EXCLUDED.matched_at", nativeQuery = true)
+    int upsert(@Param("patientId") UUID patientId, @Param("candidatePatientId") UUID candidatePatientId,
+            @Param("score") String score, @Param("matchedAt") Instant matchedAt);
+}
@@ -2,30 +2,76 @@ package xs.test2.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import xs.test2.entity.Patient;
+import xs.test2.shared.MatchCandidate;
 
-import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
-public interface PatientRepository extends JpaRepository<Patient, UUID> {
+public interface PatientRepository extends JpaRepository<Patient, UUID>, PatientCandidateLookup,
+        PatientRowUpdates {
 
-    Page<Patient> findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(
-            String firstName, String lastName, Pageable pageable);
+    @EntityGraph(attributePaths = "identifiers")
+    Optional<Patient> findWithIdentifiersById(UUID id);
 
-    @Query(value = "SELECT * FROM patient p WHERE p.id != :id " +
-           "AND ((:firstName IS NOT NULL AND :lastName IS NOT NULL AND p.first_name = :firstName AND p.last_name = :lastName) " +
-           "OR (CAST(:dob AS DATE) IS NOT NULL AND p.dob = CAST(:dob AS DATE)) " +
-           "OR (:email IS NOT NULL AND p.email = :email) " +
-           "OR (:phoneNo IS NOT NULL AND p.phone_no = :phoneNo))", nativeQuery = true)
-    Iterable<Patient> getMatchingPatients(@Param("id") UUID id,
+    @EntityGraph(attributePaths = "identifiers")
+    List<Patient> findWithIdentifiersByIdIn(Collection<UUID> ids);
+
+    /*
+     * Name searches rank and count at most :limit matching rows. The inner LIMIT lets Postgres stop the
+     * trigram index scan early, so neither the count nor the sort grows with the size of the table; broad
+     * terms see the first :limit matches only and have to be narrowed to find anything else.
+     */
+
+    @Query(value = "SELECT * FROM (SELECT * FROM patient p " +
+           "WHERE lower(p.first_name) LIKE :pattern OR lower(p.last_name) LIKE :pattern LIMIT :limit) p " +
+           "ORDER BY greatest(similarity(lower(p.first_name), :name), similarity(lower(p.last_name), :name)) DESC, p.id",
+           countQuery = "SELECT count(*) FROM (SELECT 1 FROM patient p " +
+           "WHERE lower(p.first_name) LIKE :pattern OR lower(p.last_name) LIKE :pattern LIMIT :limit) p",
+           nativeQuery = true)
+    Page<Patient> searchByName(@Param("name") String name, @Param("pattern") String pattern,
+            @Param("limit") int limit, Pageable pageable);
+
+    @Query(value = "SELECT * FROM (SELECT * FROM patient p " +
+           "WHERE lower(p.first_name) LIKE :prefix OR lower(p.last_name) LIKE :prefix LIMIT :limit) p " +
+           "ORDER BY p.last_name, p.first_name, p.id",
+           countQuery = "SELECT count(*) FROM (SELECT 1 FROM patient p " +
+           "WHERE lower(p.first_name) LIKE :prefix OR lower(p.last_name) LIKE :prefix LIMIT :limit) p",
+           nativeQuery = true)
+    Page<Patient> searchByNamePrefix(@Param("prefix") String prefix, @Param("limit") int limit, Pageable pageable);
+
+    @Query(value = "SELECT * FROM patient p " +
+           "WHERE (coalesce(p.last_name, ''), p.first_name, p.id) > (:lastName, :firstName, :id) " +
+           "ORDER BY coalesce(p.last_name, ''), p.first_name, p.id LIMIT :limit", nativeQuery = true)
+    List<Patient> scrollAfter(@Param("lastName") String lastName,
             @Param("firstName") String firstName,
+            @Param("id") UUID id,
+            @Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM patient p " +
+           "WHERE (lower(p.first_name) LIKE :pattern OR lower(p.last_name) LIKE :pattern) " +
+           "AND (coalesce(p.last_name, ''), p.first_name, p.id) > (:lastName, :firstName, :id) " +
+           "ORDER BY coalesce(p.last_name, ''), p.first_name, p.id LIMIT :limit", nativeQuery = true)
+    List<Patient> scrollByNameAfter(@Param("pattern") String pattern,
             @Param("lastName") String lastName,
-            @Param("dob") LocalDate dob,
-            @Param("email") String email,
-            @Param("phoneNo") String phoneNo);
+            @Param("firstName") String firstName,
+            @Param("id") UUID id,
+            @Param("limit") int limit);
+
+    @Query("SELECT new xs.test2.shared.MatchCandidate(p.id, p.firstName, p.lastName, p.dob, p.email, p.phoneNo) " +
+           "FROM Patient p WHERE p.status = xs.test2.shared.PatientStatus.ACTIVE")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<MatchCandidate> streamMatchCandidates();
 }
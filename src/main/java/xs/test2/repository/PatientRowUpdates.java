@@ -0,0 +1,21 @@
+package xs.test2.repository;
+
+import java.util.UUID;
+
+/**
+ * Single-statement updates of the patient row used by merges. They flush pending changes
+ * first, clear the persistence context afterwards and evict only the updated patient from
+ * the second-level cache.
+ */
+public interface PatientRowUpdates {
+
+    /**
+     * Marks an ACTIVE patient MERGED; 0 when the patient is missing or already merged.
+     */
+    int markMerged(UUID id);
+
+    /**
+     * Bumps updated_at and the version, e.g. after the patient's identifiers changed.
+     */
+    int touch(UUID id);
+}
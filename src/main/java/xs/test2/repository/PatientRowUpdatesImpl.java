@@ -0,0 +1,37 @@
+package xs.test2.repository;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import xs.test2.entity.Patient;
+
+import java.util.UUID;
+
+public class PatientRowUpdatesImpl implements PatientRowUpdates {
+
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+
+    public PatientRowUpdatesImpl(EntityManager entityManager, JdbcTemplate jdbcTemplate) {
+        this.entityManager = entityManager;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int markMerged(UUID id) {
+        return update("UPDATE patient SET status = 'MERGED', updated_at = now(), version = version + 1 " +
+                "WHERE id = ? AND status = 'ACTIVE'", id);
+    }
+
+    @Override
+    public int touch(UUID id) {
+        return update("UPDATE patient SET updated_at = now(), version = version + 1 WHERE id = ?", id);
+    }
+
+    private int update(String sql, UUID id) {
+        entityManager.flush();
+        int updated = jdbcTemplate.update(sql, id);
+        entityManager.clear();
+        SecondLevelCacheEviction.evict(entityManager, cache -> cache.evictEntityData(Patient.class, id));
+        return updated;
+    }
+}
@@ -0,0 +1,32 @@
+package xs.test2.repository;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Cache;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Consumer;
+
+/**
+ * Targeted second-level cache eviction for the row updates that bypass Hibernate. The
+ * eviction runs right away and again once the transaction completes, so a concurrent reader
+ * can't put the old state back before commit.
+ */
+final class SecondLevelCacheEviction {
+
+    private SecondLevelCacheEviction() {
+    }
+
+    static void evict(EntityManager entityManager, Consumer<Cache> eviction) {
+        Cache cache = entityManager.getEntityManagerFactory().getCache().unwrap(Cache.class);
+        eviction.accept(cache);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    eviction.accept(cache);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package xs.test2.service;
+
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+import xs.test2.dto.IdentifierLookupDTO;
+import xs.test2.dto.NewPatientIdentifierDTO;
+import xs.test2.event.IdentifierChangedEvent;
+import xs.test2.event.PatientChangedEvent;
+import xs.test2.repository.PatientIdentifierRepository;
+import xs.test2.shared.IdentifierOwner;
+import xs.test2.shared.IdentifierType;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Finds the patients owning an identifier through idx_patient_identifier_type_value.
+ * Single lookups are cached (identifierOwners) under the normalised value; only hits are
+ * cached. Every identifier write evicts its own entry after commit (IdentifierChangedEvent),
+ * deleting or merging a patient clears the cache.
+ */
+@Service
+public class IdentifierLookupService {
+
+    static final int MAX_BATCH_SIZE = 1000;
+
+    private final PatientIdentifierRepository patientIdentifierRepository;
+    private final PhoneNumberService phoneNumberService;
+
+    public IdentifierLookupService(PatientIdentifierRepository patientIdentifierRepository,
+                                   PhoneNumberService phoneNumberService) {
+        this.patientIdentifierRepository = patientIdentifierRepository;
+        this.phoneNumberService = phoneNumberService;
+    }
+
+    @Cacheable(cacheNames = "identifierOwners", key = "#root.target.cacheKey(#idType, #idValue)",
+            unless = "#result.isEmpty()")
+    public List<UUID> findPatientIds(IdentifierType idType, String idValue) {
+        if (idType == null || idValue == null || idValue.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "idType and idValue are required");
+        }
+        return patientIdentifierRepository.findPatientIds(idType, normalize(idType, idValue));
+    }
+
+    public List<IdentifierLookupDTO> findPatientIds(List<NewPatientIdentifierDTO> identifiers) {
+        if (identifiers.size() > MAX_BATCH_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + MAX_BATCH_SIZE + " identifiers per lookup");
+        }
+
+        Map<IdentifierType, Set<String>> valuesByType = new EnumMap<>(IdentifierType.class);
+        for (NewPatientIdentifierDTO identifier : identifiers) {
+            if (identifier.getIdType() == null || identifier.getIdValue() == null || identifier.getIdValue().isBlank()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "idType and idValue are required");
+            }
+            valuesByType.computeIfAbsent(identifier.getIdType(), t -> new LinkedHashSet<>())
+                    .add(normalize(identifier.getIdType(), identifier.getIdValue()));
+        }
+
+        Map<IdentifierType, Map<String, List<UUID>>> owners = new EnumMap<>(IdentifierType.class);
+        valuesByType.forEach((idType, values) -> {
+            Map<String, List<UUID>> byValue = new HashMap<>();
+            for (IdentifierOwner owner : patientIdentifierRepository.findOwners(idType, values)) {
+                byValue.computeIfAbsent(owner.idValue(), v -> new ArrayList<>()).add(owner.patientId());
+            }
+            owners.put(idType, byValue);
+        });
+
+        List<IdentifierLookupDTO> results = new ArrayList<>(identifiers.size());
+        for (NewPatientIdentifierDTO identifier : identifiers) {
+            String idValue = normalize(identifier.getIdType(), identifier.getIdValue());
+            List<UUID> patientIds = owners.get(identifier.getIdType()).getOrDefault(idValue, List.of());
+            results.add(new IdentifierLookupDTO(identifier.getIdType(), identifier.getIdValue(), patientIds));
+        }
+        return results;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @CacheEvict(cacheNames = "identifierOwners", key = "#root.target.cacheKey(#event.idType(), #event.idValue())")
+    public void onIdentifierChanged(IdentifierChangedEvent event) {
+    }
+
+    @TransactionalEventListener(fallbackExecution = true, condition = "#event.deleted()")
+    @CacheEvict(cacheNames = "identifierOwners", allEntries = true)
+    public void onPatientRemoved(PatientChangedEvent event) {
+    }
+
+    public String cacheKey(IdentifierType idType, String idValue) {
+        return idType + ":" + normalize(idType, idValue);
+    }
+
+    private String normalize(IdentifierType idType, String idValue) {
+        return idType == IdentifierType.PHONE ? phoneNumberService.normalize(idValue) : idValue;
+    }
+}
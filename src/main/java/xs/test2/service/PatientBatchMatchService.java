@@ -0,0 +1,115 @@
+package xs.test2.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import xs.test2.dto.PatientBatchMatchDTO;
+import xs.test2.dto.PatientMatchDTO;
+import xs.test2.dto.PatientRequestDTO;
+import xs.test2.repository.PatientRepository;
+import xs.test2.shared.MatchCandidate;
+import xs.test2.shared.MatchScore;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Checks unsaved registrations for existing duplicates. The blocking keys of the whole batch are
+ * looked up in one statement (PatientRepository.findMatchCandidatesByKeys), the candidates are
+ * grouped by key in memory and each registration is scored against the candidates sharing one
+ * of its keys, as autoMatchPatient does for a single patient. Only REVIEW and AUTO_MATCH
+ * candidates are returned; registrations are not matched against each other.
+ */
+@Service
+public class PatientBatchMatchService {
+
+    static final int MAX_BATCH_SIZE = 1000;
+
+    private final PatientRepository patientRepository;
+    private final PhoneNumberService phoneNumberService;
+    private final PatientMatchScorer patientMatchScorer;
+
+    public PatientBatchMatchService(PatientRepository patientRepository, PhoneNumberService phoneNumberService,
+                                    PatientMatchScorer patientMatchScorer) {
+        this.patientRepository = patientRepository;
+        this.phoneNumberService = phoneNumberService;
+        this.patientMatchScorer = patientMatchScorer;
+    }
+
+    public List<PatientBatchMatchDTO> match(List<PatientRequestDTO> registrations) {
+        if (registrations.size() > MAX_BATCH_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + MAX_BATCH_SIZE + " registrations per match");
+        }
+
+        List<MatchCandidate> probes = new ArrayList<>(registrations.size());
+        Set<String> namePhonetics = new LinkedHashSet<>();
+        Set<LocalDate> dobs = new LinkedHashSet<>();
+        Set<String> emails = new LinkedHashSet<>();
+        Set<String> phoneNos = new LinkedHashSet<>();
+        for (PatientRequestDTO registration : registrations) {
+            MatchCandidate probe = toProbe(registration);
+            probes.add(probe);
+            addIfPresent(namePhonetics, probe.namePhonetic());
+            addIfPresent(dobs, probe.dob());
+            addIfPresent(emails, probe.email());
+            addIfPresent(phoneNos, probe.phoneNo());
+        }
+
+        Map<String, List<MatchCandidate>> candidatesByKey = new HashMap<>();
+        for (MatchCandidate candidate : patientRepository.findMatchCandidatesByKeys(namePhonetics, dobs, emails, phoneNos)) {
+            for (String key : PatientMatchIndex.blockingKeys(candidate)) {
+                candidatesByKey.computeIfAbsent(key, k -> new ArrayList<>()).add(candidate);
+            }
+        }
+
+        List<PatientBatchMatchDTO> results = new ArrayList<>(probes.size());
+        for (int i = 0; i < probes.size(); i++) {
+            results.add(new PatientBatchMatchDTO(i, score(probes.get(i), candidatesByKey)));
+        }
+        return results;
+    }
+
+    private List<PatientMatchDTO> score(MatchCandidate probe, Map<String, List<MatchCandidate>> candidatesByKey) {
+        Map<UUID, MatchCandidate> candidates = new LinkedHashMap<>();
+        for (String key : PatientMatchIndex.blockingKeys(probe)) {
+            for (MatchCandidate candidate : candidatesByKey.getOrDefault(key, List.of())) {
+                candidates.putIfAbsent(candidate.id(), candidate);
+            }
+        }
+
+        List<PatientMatchDTO> matches = new ArrayList<>();
+        for (MatchCandidate candidate : candidates.values()) {
+            MatchScore score = patientMatchScorer.score(probe, candidate);
+            if (score != MatchScore.NO_MATCH) {
+                matches.add(new PatientMatchDTO(candidate.id(), score));
+            }
+        }
+        matches.sort(Comparator.comparing(PatientMatchDTO::getScore));
+        return matches;
+    }
+
+    private MatchCandidate toProbe(PatientRequestDTO registration) {
+        return new MatchCandidate(null, registration.getFirstName(), registration.getLastName(),
+                registration.getDob(), blankToNull(registration.getEmail()),
+                blankToNull(phoneNumberService.normalize(registration.getPhoneNo())));
+    }
+
+    private static <T> void addIfPresent(Set<T> keys, T key) {
+        if (key != null) {
+            keys.add(key);
+        }
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+}
@@ -0,0 +1,21 @@
+package xs.test2.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.stereotype.Component;
+import xs.test2.entity.Patient;
+
+import java.util.UUID;
+
+@Component
+public class PatientCacheInspector {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public PatientCacheInspector(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    public boolean isCached(UUID patientId) {
+        return entityManagerFactory.getCache().contains(Patient.class, patientId);
+    }
+}
@@ -0,0 +1,96 @@
+package xs.test2.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import xs.test2.dto.CursorSliceDTO;
+import xs.test2.entity.Patient;
+import xs.test2.repository.PatientRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Incremental sync feed ordered by (change_txid, id). change_txid is the id of the
+ * transaction that last wrote the row, so ids can commit out of order; the feed only
+ * returns rows from transactions older than the snapshot xmin, i.e. transactions that
+ * have all finished, which means a token never skips a change that commits later.
+ */
+@Service
+public class PatientChangeFeedService {
+
+    static final int MAX_PAGE_SIZE = 1000;
+
+    private static final String CHANGES_SQL = """
+            WITH horizon AS (SELECT pg_snapshot_xmin(pg_current_snapshot())::text::bigint AS xmin)
+            SELECT c.change_txid, c.id, c.deleted FROM (
+                (SELECT p.change_txid, p.id, FALSE AS deleted FROM patient p, horizon h
+                 WHERE (p.change_txid, p.id) > (?, ?) AND p.change_txid < h.xmin
+                 ORDER BY p.change_txid, p.id LIMIT ?)
+                UNION ALL
+                (SELECT t.change_txid, t.patient_id, TRUE FROM patient_tombstone t, horizon h
+                 WHERE (t.change_txid, t.patient_id) > (?, ?) AND t.change_txid < h.xmin
+                 ORDER BY t.change_txid, t.patient_id LIMIT ?)
+            ) c
+            ORDER BY c.change_txid, c.id
+            LIMIT ?""";
+
+    private static final UUID FIRST_ID = new UUID(0L, 0L);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PatientRepository patientRepository;
+
+    public PatientChangeFeedService(JdbcTemplate jdbcTemplate, PatientRepository patientRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.patientRepository = patientRepository;
+    }
+
+    public CursorSliceDTO<PatientChange> getChanges(String token, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        long afterTxid = 0;
+        UUID afterId = FIRST_ID;
+        if (token != null && !token.isBlank()) {
+            String[] position = KeysetCursor.decode(token, 2);
+            try {
+                afterTxid = Long.parseLong(position[0]);
+                afterId = UUID.fromString(position[1]);
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+            }
+        }
+
+        int limit = size + 1;
+        List<ChangeRow> rows = jdbcTemplate.query(CHANGES_SQL,
+                (rs, rowNum) -> new ChangeRow(rs.getLong(1), rs.getObject(2, UUID.class), rs.getBoolean(3)),
+                afterTxid, afterId, limit, afterTxid, afterId, limit, limit);
+
+        boolean hasNext = rows.size() > size;
+        List<ChangeRow> page = hasNext ? rows.subList(0, size) : rows;
+        String nextToken = page.isEmpty()
+                ? KeysetCursor.encode(Long.toString(afterTxid), afterId.toString())
+                : KeysetCursor.encode(Long.toString(page.getLast().txid()), page.getLast().id().toString());
+
+        List<UUID> liveIds = page.stream().filter(row -> !row.deleted()).map(ChangeRow::id).toList();
+        Map<UUID, Patient> patients = liveIds.isEmpty() ? Map.of()
+                : patientRepository.findWithIdentifiersByIdIn(liveIds).stream()
+                        .collect(Collectors.toMap(Patient::getId, Function.identity()));
+
+        List<PatientChange> changes = page.stream()
+                .filter(row -> row.deleted() || patients.containsKey(row.id()))
+                .map(row -> new PatientChange(row.id(), row.deleted(), row.deleted() ? null : patients.get(row.id())))
+                .toList();
+        return new CursorSliceDTO<>(changes, nextToken, hasNext);
+    }
+
+    public record PatientChange(UUID patientId, boolean deleted, Patient patient) {
+    }
+
+    private record ChangeRow(long txid, UUID id, boolean deleted) {
+    }
+}
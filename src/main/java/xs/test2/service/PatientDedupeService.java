@@ -0,0 +1,352 @@
+package xs.test2.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import xs.test2.entity.PatientDedupeJob;
+import xs.test2.repository.PatientDedupeJobRepository;
+import xs.test2.shared.DedupeJobStatus;
+import xs.test2.shared.MatchCandidate;
+import xs.test2.shared.MatchScore;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Whole-table duplicate detection. Blocks use the same blocking keys as PatientMatchIndex
+ * and only patients sharing a block are scored. The table is streamed once per key column,
+ * sorted by block key, so only the block being read and the current chunk are held in
+ * memory. A pair sharing several keys is scored once, in the block of its first shared key.
+ * Chunks of blocks are scored on a fork/join pool; each chunk's pairs and the job checkpoint
+ * (last block key) commit together, so a resumed job carries on after the last committed
+ * chunk. Block counts and the streams all read one repeatable-read snapshot.
+ */
+@Service
+public class PatientDedupeService {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientDedupeService.class);
+
+    private static final String UPSERT_CANDIDATE_SQL = """
+            INSERT INTO patient_match_candidate (id, patient_id, candidate_patient_id, score, matched_at)
+            VALUES (gen_random_uuid(), ?, ?, ?, ?)
+            ON CONFLICT (patient_id, candidate_patient_id)
+            DO UPDATE SET score = EXCLUDED.score, matched_at = EXCLUDED.matched_at""";
+
+    private static final int FETCH_SIZE = 1000;
+
+    private final PatientDedupeJobRepository jobRepository;
+    private final PatientMatchScorer patientMatchScorer;
+    private final PatientNameKeyBackfill patientNameKeyBackfill;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate snapshotTransactionTemplate;
+    private final int chunkBlocks;
+    private final int maxBlockSize;
+    private final ForkJoinPool scoringPool;
+    private final ExecutorService jobExecutor = Executors.newSingleThreadExecutor(
+            Thread.ofVirtual().name("patient-dedupe").factory());
+    private final AtomicBoolean jobRunning = new AtomicBoolean();
+
+    public PatientDedupeService(PatientDedupeJobRepository jobRepository, PatientMatchScorer patientMatchScorer,
+                                PatientNameKeyBackfill patientNameKeyBackfill, JdbcTemplate jdbcTemplate,
+                                TransactionTemplate transactionTemplate,
+                                @Value("${test2.dedupe.chunk-blocks:500}") int chunkBlocks,
+                                @Value("${test2.dedupe.max-block-size:1000}") int maxBlockSize,
+                                @Value("${test2.dedupe.parallelism:0}") int parallelism) {
+        this.jobRepository = jobRepository;
+        this.patientMatchScorer = patientMatchScorer;
+        this.patientNameKeyBackfill = patientNameKeyBackfill;
+        this.jdbcTemplate = jdbcTemplate;
+        // Chunks are written while the snapshot transaction is still streaming.
+        this.transactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.snapshotTransactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.snapshotTransactionTemplate.setReadOnly(true);
+        this.snapshotTransactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.chunkBlocks = chunkBlocks;
+        this.maxBlockSize = maxBlockSize;
+        this.scoringPool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    public PatientDedupeJob startJob() {
+        return launch(() -> {
+            PatientDedupeJob job = new PatientDedupeJob();
+            job.setStatus(DedupeJobStatus.RUNNING);
+            job.setStartedAt(Instant.now());
+            return jobRepository.save(job);
+        });
+    }
+
+    public PatientDedupeJob resumeJob(UUID jobId) {
+        return launch(() -> {
+            PatientDedupeJob job = getJob(jobId);
+            if (job.getStatus() == DedupeJobStatus.COMPLETED) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Dedupe job already completed");
+            }
+            job.setStatus(DedupeJobStatus.RUNNING);
+            job.setErrorMessage(null);
+            job.setFinishedAt(null);
+            return jobRepository.save(job);
+        });
+    }
+
+    public PatientDedupeJob getJob(UUID jobId) {
+        return jobRepository.findById(jobId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Dedupe job not found"));
+    }
+
+    /**
+     * Claims the single job slot before the job row is marked RUNNING, so a rejected start
+     * or resume never leaves a RUNNING row behind.
+     */
+    private PatientDedupeJob launch(Supplier<PatientDedupeJob> markRunning) {
+        if (!jobRunning.compareAndSet(false, true)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "A dedupe job is already running");
+        }
+        try {
+            PatientDedupeJob job = markRunning.get();
+            UUID jobId = job.getId();
+            jobExecutor.execute(() -> {
+                try {
+                    run(jobId);
+                } finally {
+                    jobRunning.set(false);
+                }
+            });
+            return job;
+        } catch (RuntimeException e) {
+            jobRunning.set(false);
+            throw e;
+        }
+    }
+
+    void run(UUID jobId) {
+        try {
+            // Blocks are read from the stored name keys, so fill in any that are missing first.
+            patientNameKeyBackfill.backfill();
+            snapshotTransactionTemplate.executeWithoutResult(status -> dedupe(jobId));
+
+            transactionTemplate.executeWithoutResult(status -> {
+                PatientDedupeJob finished = getJob(jobId);
+                finished.setStatus(DedupeJobStatus.COMPLETED);
+                finished.setFinishedAt(Instant.now());
+                jobRepository.save(finished);
+            });
+            log.info("Dedupe job {} completed", jobId);
+        } catch (RuntimeException e) {
+            log.error("Dedupe job {} failed", jobId, e);
+            PatientDedupeJob failed = getJob(jobId);
+            failed.setStatus(DedupeJobStatus.FAILED);
+            failed.setFinishedAt(Instant.now());
+            failed.setErrorMessage(e.getMessage());
+            jobRepository.save(failed);
+        }
+    }
+
+    private void dedupe(UUID jobId) {
+        Set<String> skippedKeys = new HashSet<>();
+        int blocksTotal = 0;
+        for (BlockColumn column : BlockColumn.values()) {
+            skippedKeys.addAll(jdbcTemplate.queryForList(column.oversizedKeysSql, String.class, maxBlockSize));
+            blocksTotal += jdbcTemplate.queryForObject(column.countBlocksSql, Integer.class, maxBlockSize);
+        }
+        int total = blocksTotal;
+        String lastBlockKey = transactionTemplate.execute(status -> {
+            PatientDedupeJob job = getJob(jobId);
+            job.setBlocksTotal(total);
+            job.setBlocksSkipped(skippedKeys.size());
+            return jobRepository.save(job).getLastBlockKey();
+        });
+        if (!skippedKeys.isEmpty()) {
+            log.warn("Dedupe job {} skipping {} blocks larger than {} patients", jobId, skippedKeys.size(),
+                    maxBlockSize);
+        }
+
+        BlockReader reader = new BlockReader(jobId, skippedKeys);
+        for (BlockColumn column : BlockColumn.values()) {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(column.streamSql,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(FETCH_SIZE);
+                statement.setString(1, lastBlockKey != null ? lastBlockKey : "");
+                return statement;
+            }, reader);
+            reader.endBlock();
+        }
+        reader.flush();
+    }
+
+    /**
+     * Collects consecutive rows with the same block key into blocks and scores and writes
+     * them a chunk at a time. Oversized blocks are dropped once they pass maxBlockSize.
+     */
+    private final class BlockReader implements RowCallbackHandler {
+
+        private final UUID jobId;
+        private final Set<String> skippedKeys;
+        private final List<Block> chunk = new ArrayList<>();
+        private String blockKey;
+        private List<BlockMember> members = new ArrayList<>();
+
+        BlockReader(UUID jobId, Set<String> skippedKeys) {
+            this.jobId = jobId;
+            this.skippedKeys = skippedKeys;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            String key = rs.getString("block_key");
+            if (!key.equals(blockKey)) {
+                endBlock();
+                blockKey = key;
+            }
+            if (members != null) {
+                members.add(member(rs));
+                if (members.size() > maxBlockSize) {
+                    members = null;
+                }
+            }
+        }
+
+        void endBlock() {
+            if (members != null && members.size() > 1) {
+                chunk.add(new Block(blockKey, members));
+                if (chunk.size() == chunkBlocks) {
+                    flush();
+                }
+            }
+            blockKey = null;
+            members = new ArrayList<>();
+        }
+
+        void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            List<Block> blocks = List.copyOf(chunk);
+            chunk.clear();
+            List<ScoredPair> pairs = scoringPool.submit(() -> blocks.parallelStream()
+                    .flatMap(block -> scoreBlock(block.key(), block.members(), skippedKeys).stream())
+                    .toList()).join();
+            writeChunk(jobId, blocks.getLast().key(), blocks.size(), pairs);
+        }
+    }
+
+    private static BlockMember member(ResultSet rs) throws SQLException {
+        MatchCandidate candidate = new MatchCandidate(rs.getObject("id", UUID.class), rs.getString("first_name"),
+                rs.getString("last_name"), rs.getObject("dob", LocalDate.class), rs.getString("email"),
+                rs.getString("phone_no"), rs.getString("name_key"), rs.getString("name_phonetic"));
+        List<String> keys = PatientMatchIndex.blockingKeys(candidate);
+        keys.sort(null);
+        return new BlockMember(candidate, keys);
+    }
+
+    List<ScoredPair> scoreBlock(String key, List<BlockMember> members, Set<String> skippedKeys) {
+        List<ScoredPair> pairs = new ArrayList<>();
+        for (int i = 0; i < members.size(); i++) {
+            BlockMember a = members.get(i);
+            for (int j = i + 1; j < members.size(); j++) {
+                BlockMember b = members.get(j);
+                if (!key.equals(firstSharedKey(a, b, skippedKeys))) {
+                    continue;
+                }
+                MatchScore score = patientMatchScorer.score(a.candidate(), b.candidate());
+                if (score != MatchScore.NO_MATCH) {
+                    pairs.add(new ScoredPair(a.candidate().id(), b.candidate().id(), score));
+                }
+            }
+        }
+        return pairs;
+    }
+
+    private static String firstSharedKey(BlockMember a, BlockMember b, Set<String> skippedKeys) {
+        for (String key : a.keys()) {
+            if (!skippedKeys.contains(key) && b.keys().contains(key)) {
+                return key;
+            }
+        }
+        return null;
+    }
+
+    private void writeChunk(UUID jobId, String lastKey, int blockCount, List<ScoredPair> pairs) {
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> rows = new ArrayList<>(pairs.size() * 2);
+        for (ScoredPair pair : pairs) {
+            rows.add(new Object[]{pair.first(), pair.second(), pair.score().name(), now});
+            rows.add(new Object[]{pair.second(), pair.first(), pair.score().name(), now});
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!rows.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPSERT_CANDIDATE_SQL, rows);
+            }
+            PatientDedupeJob job = getJob(jobId);
+            job.setLastBlockKey(lastKey);
+            job.setBlocksProcessed(job.getBlocksProcessed() + blockCount);
+            job.setPairsWritten(job.getPairsWritten() + pairs.size());
+            jobRepository.save(job);
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        jobExecutor.shutdownNow();
+        scoringPool.shutdownNow();
+    }
+
+    record BlockMember(MatchCandidate candidate, List<String> keys) {
+    }
+
+    record Block(String key, List<BlockMember> members) {
+    }
+
+    /**
+     * The key columns in block key order (D: &lt; E: &lt; N: &lt; P:). Block keys are built and
+     * compared in SQL with the "C" collation, so one checkpoint key orders all four streams.
+     */
+    private enum BlockColumn {
+        DOB("dob", "'D:' || to_char(dob, 'YYYY-MM-DD')"),
+        EMAIL("email", "'E:' || email"),
+        NAME("name_phonetic", "'N:' || name_phonetic"),
+        PHONE("phone_no", "'P:' || phone_no");
+
+        final String countBlocksSql;
+        final String oversizedKeysSql;
+        final String streamSql;
+
+        BlockColumn(String column, String blockKey) {
+            String members = " FROM patient WHERE " + column + " IS NOT NULL AND status = 'ACTIVE'";
+            this.countBlocksSql = "SELECT count(*) FROM (SELECT 1" + members
+                    + " GROUP BY " + column + " HAVING count(*) BETWEEN 2 AND ?) b";
+            this.oversizedKeysSql = "SELECT " + blockKey + members + " GROUP BY " + column + " HAVING count(*) > ?";
+            this.streamSql = "SELECT " + blockKey + " AS block_key, "
+                    + "id, first_name, last_name, dob, email, phone_no, name_key, name_phonetic" + members
+                    + " AND (" + blockKey + ") COLLATE \"C\" > ?"
+                    + " ORDER BY (" + blockKey + ") COLLATE \"C\"";
+        }
+    }
+
+    record ScoredPair(UUID first, UUID second, MatchScore score) {
+    }
+}
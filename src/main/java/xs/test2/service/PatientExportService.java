@@ -0,0 +1,93 @@
+package xs.test2.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+
+/**
+ * NDJSON export of the patient table. Postgres builds each line with json_build_object
+ * (identifiers folded in with json_agg), and the rows are read through a server-side
+ * cursor: the driver only uses one when autocommit is off and a fetch size is set, hence
+ * the read-only transaction around the query. Each row is copied straight to the output
+ * stream, so memory use does not depend on the table size. With modifiedSince the filter
+ * is a plain range on idx_patient_updated_at; without it the query has no WHERE clause.
+ */
+@Service
+public class PatientExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientExportService.class);
+
+    private static final String EXPORT_SQL = """
+            SELECT json_build_object(
+                'id', p.id,
+                'firstName', p.first_name,
+                'lastName', p.last_name,
+                'dob', p.dob,
+                'gender', p.gender,
+                'phoneNo', p.phone_no,
+                'email', p.email,
+                'australianAddress', p.australian_address,
+                'status', p.status,
+                'createdAt', p.created_at,
+                'updatedAt', p.updated_at,
+                'identifiers', coalesce((
+                    SELECT json_agg(json_build_object('id', i.id, 'idType', i.id_type, 'idValue', i.id_value))
+                    FROM patient_identifier i WHERE i.patient_id = p.id), '[]'::json)
+            )::text
+            FROM patient p""";
+
+    private static final String EXPORT_MODIFIED_SINCE_SQL = EXPORT_SQL + "\nWHERE p.updated_at >= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final int fetchSize;
+
+    public PatientExportService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                @Value("${test2.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.fetchSize = fetchSize;
+    }
+
+    public long exportNdjson(Instant modifiedSince, OutputStream output) throws IOException {
+        String sql = modifiedSince != null ? EXPORT_MODIFIED_SINCE_SQL : EXPORT_SQL;
+        long[] rows = new long[1];
+        try {
+            readOnlyTransactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(sql,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                if (modifiedSince != null) {
+                    statement.setTimestamp(1, Timestamp.from(modifiedSince));
+                }
+                return statement;
+            }, resultSet -> {
+                try {
+                    output.write(resultSet.getString(1).getBytes(StandardCharsets.UTF_8));
+                    output.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                rows[0]++;
+            }));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        output.flush();
+        log.info("Exported {} patients", rows[0]);
+        return rows[0];
+    }
+}
@@ -0,0 +1,277 @@
+package xs.test2.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+import xs.test2.dto.PatientImportErrorDTO;
+import xs.test2.dto.PatientImportResultDTO;
+import xs.test2.dto.PatientRequestDTO;
+import xs.test2.entity.AustralianAddress;
+import xs.test2.entity.Patient;
+import xs.test2.entity.PatientIdentifier;
+import xs.test2.event.IdentifierChangedEvent;
+import xs.test2.event.PatientChangedEvent;
+import xs.test2.repository.PatientRepository;
+import xs.test2.shared.Gender;
+import xs.test2.shared.MatchCandidate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk patient import. Rows are parsed and validated one at a time and written in
+ * chunks, one transaction per chunk, so Hibernate can batch the patient and identifier
+ * inserts. A chunk that fails in the database is replayed row by row to isolate the
+ * offending rows; every other row is still imported. The persistence context is cleared
+ * after each chunk: with open-in-view every chunk shares the request's EntityManager, which
+ * would otherwise hold every imported patient until the upload ends.
+ */
+@Service
+public class PatientImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientImportService.class);
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    static final List<String> CSV_COLUMNS = List.of("firstName", "lastName", "dob", "gender", "phoneNo",
+            "email", "address", "suburb", "state", "postcode");
+
+    private final PatientService patientService;
+    private final PatientRepository patientRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JsonMapper jsonMapper;
+    private final Validator validator;
+    private final int chunkSize;
+
+    public PatientImportService(PatientService patientService, PatientRepository patientRepository,
+                                EntityManager entityManager, TransactionTemplate transactionTemplate, ApplicationEventPublisher eventPublisher,
+                                JsonMapper jsonMapper, Validator validator,
+                                @Value("${test2.import.chunk-size:500}") int chunkSize) {
+        this.patientService = patientService;
+        this.patientRepository = patientRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.jsonMapper = jsonMapper;
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+    }
+
+    public PatientImportResultDTO importNdjson(InputStream input) throws IOException {
+        try (BufferedReader reader = newReader(input)) {
+            return importLines(reader, 0, line -> jsonMapper.readValue(line, PatientRequestDTO.class));
+        }
+    }
+
+    public PatientImportResultDTO importCsv(InputStream input) throws IOException {
+        try (BufferedReader reader = newReader(input)) {
+            String header = reader.readLine();
+            if (header == null) {
+                return new PatientImportResultDTO();
+            }
+            List<String> columns = parseCsvLine(header).stream().map(String::trim).toList();
+            for (String column : columns) {
+                if (!CSV_COLUMNS.contains(column)) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown CSV column: " + column);
+                }
+            }
+            return importLines(reader, 1, line -> fromCsv(columns, parseCsvLine(line)));
+        }
+    }
+
+    private PatientImportResultDTO importLines(BufferedReader reader, long lineOffset,
+                                               Function<String, PatientRequestDTO> parser) throws IOException {
+        PatientImportResultDTO result = new PatientImportResultDTO();
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+        long lineNo = lineOffset;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNo++;
+            if (line.isBlank()) {
+                continue;
+            }
+
+            PatientRequestDTO dto;
+            try {
+                dto = parser.apply(line);
+            } catch (JacksonException | IllegalArgumentException | DateTimeException e) {
+                reject(result, lineNo, e.getMessage());
+                continue;
+            }
+            if (dto == null) {
+                reject(result, lineNo, "Expected a JSON object");
+                continue;
+            }
+
+            Set<ConstraintViolation<PatientRequestDTO>> violations = validator.validate(dto);
+            if (!violations.isEmpty()) {
+                reject(result, lineNo, violations.stream()
+                        .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining(", ")));
+                continue;
+            }
+
+            chunk.add(new ImportRow(lineNo, dto));
+            if (chunk.size() == chunkSize) {
+                persistChunk(chunk, result);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            persistChunk(chunk, result);
+        }
+        log.info("Patient import finished: {} imported, {} failed", result.getImported(), result.getFailed());
+        return result;
+    }
+
+    private void persistChunk(List<ImportRow> chunk, PatientImportResultDTO result) {
+        try {
+            saveAll(chunk);
+            result.setImported(result.getImported() + chunk.size());
+        } catch (DataAccessException e) {
+            log.warn("Import chunk ending at line {} failed, retrying rows individually: {}",
+                    chunk.getLast().line(), NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            for (ImportRow row : chunk) {
+                try {
+                    saveAll(List.of(row));
+                    result.setImported(result.getImported() + 1);
+                } catch (DataAccessException rowError) {
+                    reject(result, row.line(), NestedExceptionUtils.getMostSpecificCause(rowError).getMessage());
+                }
+            }
+        }
+    }
+
+    private void saveAll(List<ImportRow> rows) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Patient> patients = rows.stream()
+                    .map(row -> patientService.newPatient(row.dto()))
+                    .toList();
+            patientRepository.saveAll(patients);
+            patientRepository.flush();
+            for (Patient patient : patients) {
+                eventPublisher.publishEvent(new PatientChangedEvent(patient.getId(), MatchCandidate.of(patient)));
+                for (PatientIdentifier identifier : patient.getIdentifiers()) {
+                    eventPublisher.publishEvent(
+                            new IdentifierChangedEvent(identifier.getIdType(), identifier.getIdValue()));
+                }
+            }
+            entityManager.clear();
+        });
+    }
+
+    private void reject(PatientImportResultDTO result, long line, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+            result.getErrors().add(new PatientImportErrorDTO(line, message));
+        }
+    }
+
+    private PatientRequestDTO fromCsv(List<String> columns, List<String> values) {
+        if (values.size() != columns.size()) {
+            throw new IllegalArgumentException("Expected %d fields but found %d".formatted(columns.size(), values.size()));
+        }
+        PatientRequestDTO dto = new PatientRequestDTO();
+        AustralianAddress address = new AustralianAddress();
+        boolean hasAddress = false;
+        for (int i = 0; i < columns.size(); i++) {
+            String value = values.get(i).trim();
+            if (value.isEmpty()) {
+                continue;
+            }
+            switch (columns.get(i)) {
+                case "firstName" -> dto.setFirstName(value);
+                case "lastName" -> dto.setLastName(value);
+                case "dob" -> dto.setDob(LocalDate.parse(value));
+                case "gender" -> dto.setGender(Gender.valueOf(value.toUpperCase(Locale.ROOT)));
+                case "phoneNo" -> dto.setPhoneNo(value);
+                case "email" -> dto.setEmail(value);
+                case "address" -> {
+                    address.setAddress(value);
+                    hasAddress = true;
+                }
+                case "suburb" -> {
+                    address.setSuburb(value);
+                    hasAddress = true;
+                }
+                case "state" -> {
+                    address.setState(value);
+                    hasAddress = true;
+                }
+                case "postcode" -> {
+                    address.setPostcode(value);
+                    hasAddress = true;
+                }
+                default -> throw new IllegalArgumentException("Unknown column: " + columns.get(i));
+            }
+        }
+        if (hasAddress) {
+            dto.setAustralianAddress(address);
+        }
+        return dto;
+    }
+
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static BufferedReader newReader(InputStream input) {
+        return new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+    }
+
+    private record ImportRow(long line, PatientRequestDTO dto) {
+    }
+}
@@ -0,0 +1,138 @@
+package xs.test2.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import xs.test2.event.PatientChangedEvent;
+import xs.test2.repository.PatientRepository;
+import xs.test2.shared.MatchCandidate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * In-process blocking-key index used by autoMatchPatient to find candidates without
+ * running the UNION query in PatientRepository.findMatchCandidates. Keys mirror the
+ * branches of that query: phonetic name, dob, email and phone.
+ */
+@Component
+public class PatientMatchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientMatchIndex.class);
+
+    private final PatientRepository patientRepository;
+    private final boolean enabled;
+
+    private final Map<String, Set<UUID>> patientIdsByKey = new ConcurrentHashMap<>();
+    private final Map<UUID, List<String>> keysByPatientId = new ConcurrentHashMap<>();
+    private final Set<UUID> changedDuringWarmUp = ConcurrentHashMap.newKeySet();
+    private volatile boolean ready;
+
+    public PatientMatchIndex(PatientRepository patientRepository,
+                             @Value("${test2.match-index.enabled:false}") boolean enabled) {
+        this.patientRepository = patientRepository;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled && ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try (Stream<MatchCandidate> candidates = patientRepository.streamMatchCandidates()) {
+            candidates.filter(c -> !changedDuringWarmUp.contains(c.id()))
+                    .forEach(this::put);
+        }
+        ready = true;
+        changedDuringWarmUp.clear();
+        log.info("Patient match index loaded {} patients in {} ms", keysByPatientId.size(),
+                System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPatientChanged(PatientChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (!ready) {
+            changedDuringWarmUp.add(event.patientId());
+        }
+        if (event.deleted()) {
+            remove(event.patientId());
+        } else {
+            put(event.snapshot());
+        }
+    }
+
+    public Set<UUID> findCandidateIds(MatchCandidate probe) {
+        Set<UUID> candidateIds = new HashSet<>();
+        for (String key : blockingKeys(probe)) {
+            Set<UUID> ids = patientIdsByKey.get(key);
+            if (ids != null) {
+                candidateIds.addAll(ids);
+            }
+        }
+        candidateIds.remove(probe.id());
+        return candidateIds;
+    }
+
+    void put(MatchCandidate candidate) {
+        remove(candidate.id());
+        List<String> keys = blockingKeys(candidate);
+        for (String key : keys) {
+            patientIdsByKey.compute(key, (k, ids) -> {
+                Set<UUID> result = ids != null ? ids : ConcurrentHashMap.newKeySet();
+                result.add(candidate.id());
+                return result;
+            });
+        }
+        keysByPatientId.put(candidate.id(), keys);
+    }
+
+    void remove(UUID patientId) {
+        List<String> keys = keysByPatientId.remove(patientId);
+        if (keys == null) {
+            return;
+        }
+        for (String key : keys) {
+            patientIdsByKey.computeIfPresent(key, (k, ids) -> {
+                ids.remove(patientId);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    static List<String> blockingKeys(MatchCandidate candidate) {
+        List<String> keys = new ArrayList<>(4);
+        if (candidate.namePhonetic() != null) {
+            keys.add("N:" + candidate.namePhonetic());
+        }
+        if (candidate.dob() != null) {
+            keys.add("D:" + candidate.dob());
+        }
+        if (candidate.email() != null) {
+            keys.add("E:" + candidate.email());
+        }
+        if (candidate.phoneNo() != null) {
+            keys.add("P:" + candidate.phoneNo());
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,241 @@
+package xs.test2.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import xs.test2.entity.PatientMatchCandidate;
+import xs.test2.event.PatientChangedEvent;
+import xs.test2.repository.PatientMatchCandidateRepository;
+import xs.test2.repository.PatientRepository;
+import xs.test2.shared.MatchScore;
+import xs.test2.shared.PatientStatus;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs auto-matching off the request thread. Patient changes are picked up after commit
+ * and handed to a fixed number of virtual-thread workers through a bounded queue. When the
+ * queue is full the publishing thread waits up to submit-timeout for a slot, which slows
+ * down bulk writers such as the import; a change that still doesn't fit is deferred and
+ * counted, and the workers re-queue deferred patients as the queue drains, so every change
+ * is eventually matched. A patient already waiting in the queue is not queued twice, since
+ * the worker reloads the latest state anyway. A patient is matched by one worker at a time:
+ * a change arriving while it runs marks it for one more run by the same worker.
+ *
+ * Candidate rows are kept in both directions, so a run replaces every row involving the
+ * patient, on either side, and upserts the new pairs in a fixed order per pair.
+ */
+@Component
+public class PatientMatchPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientMatchPipeline.class);
+
+    private final PatientService patientService;
+    private final PatientRepository patientRepository;
+    private final PatientMatchCandidateRepository matchCandidateRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final ThreadPoolExecutor executor;
+    private final long submitTimeoutMillis;
+    private final Map<UUID, MatchState> pending = new ConcurrentHashMap<>();
+    private final Set<UUID> deferred = ConcurrentHashMap.newKeySet();
+    private final Counter rejected;
+    private final Counter failed;
+    private final Timer matchTimer;
+
+    public PatientMatchPipeline(PatientService patientService, PatientRepository patientRepository,
+                                PatientMatchCandidateRepository matchCandidateRepository,
+                                TransactionTemplate transactionTemplate, MeterRegistry meterRegistry,
+                                @Value("${test2.match-pipeline.enabled:true}") boolean enabled,
+                                @Value("${test2.match-pipeline.workers:4}") int workers,
+                                @Value("${test2.match-pipeline.queue-capacity:1000}") int queueCapacity,
+                                @Value("${test2.match-pipeline.submit-timeout:2s}") Duration submitTimeout) {
+        this.patientService = patientService;
+        this.patientRepository = patientRepository;
+        this.matchCandidateRepository = matchCandidateRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.submitTimeoutMillis = submitTimeout.toMillis();
+        // Tasks are offered straight to the queue (see enqueue), so the workers must already be running.
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofVirtual().name("patient-match-", 0).factory());
+        this.executor.prestartAllCoreThreads();
+
+        Gauge.builder("patient.match.queue.depth", executor, e -> e.getQueue().size())
+                .description("Patient changes waiting to be matched")
+                .register(meterRegistry);
+        Gauge.builder("patient.match.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Patient match jobs currently running")
+                .register(meterRegistry);
+        Gauge.builder("patient.match.deferred", deferred, Set::size)
+                .description("Patients waiting for a free slot in the match queue")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("patient.match.rejected")
+                .description("Patient changes that did not fit in the match queue and were deferred")
+                .register(meterRegistry);
+        this.failed = Counter.builder("patient.match.failed")
+                .register(meterRegistry);
+        this.matchTimer = Timer.builder("patient.match.duration")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPatientChanged(PatientChangedEvent event) {
+        if (enabled) {
+            submit(event.patientId());
+        }
+    }
+
+    boolean submit(UUID patientId) {
+        if (!markQueued(patientId)) {
+            return true;
+        }
+        if (enqueue(patientId, submitTimeoutMillis)) {
+            return true;
+        }
+        pending.remove(patientId);
+        deferred.add(patientId);
+        rejected.increment();
+        log.warn("Match queue full, deferring patient {}", patientId);
+        if (executor.getQueue().isEmpty()) {
+            // The workers drained the queue while this change was being deferred.
+            drainDeferred();
+        }
+        return false;
+    }
+
+    /**
+     * Records a change for the patient; true when it has to be queued, false when a queued
+     * or running match (marked for one more run) already covers it.
+     */
+    private boolean markQueued(UUID patientId) {
+        boolean[] queued = new boolean[1];
+        pending.compute(patientId, (id, state) -> {
+            if (state == null) {
+                queued[0] = true;
+                return MatchState.QUEUED;
+            }
+            return state == MatchState.QUEUED ? state : MatchState.RERUN;
+        });
+        return queued[0];
+    }
+
+    private boolean enqueue(UUID patientId, long waitMillis) {
+        if (executor.isShutdown()) {
+            return false;
+        }
+        try {
+            return executor.getQueue().offer(() -> run(patientId), waitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Moves deferred patients back into the queue while it has room, without waiting.
+     */
+    private void drainDeferred() {
+        for (UUID patientId : deferred) {
+            if (executor.getQueue().remainingCapacity() == 0) {
+                return;
+            }
+            if (!deferred.remove(patientId)) {
+                continue;
+            }
+            if (!markQueued(patientId)) {
+                continue;
+            }
+            if (!enqueue(patientId, 0)) {
+                pending.remove(patientId);
+                deferred.add(patientId);
+                return;
+            }
+        }
+    }
+
+    private void run(UUID patientId) {
+        pending.put(patientId, MatchState.RUNNING);
+        do {
+            try {
+                matchTimer.record(() -> match(patientId));
+            } catch (RuntimeException e) {
+                failed.increment();
+                log.warn("Matching patient {} failed", patientId, e);
+            }
+        } while (pending.compute(patientId,
+                (id, state) -> state == MatchState.RERUN ? MatchState.RUNNING : null) != null);
+        drainDeferred();
+    }
+
+    void match(UUID patientId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            var patient = patientRepository.findById(patientId);
+            if (patient.isEmpty() || patient.get().getStatus() == PatientStatus.MERGED) {
+                matchCandidateRepository.deleteInvolving(patientId);
+                return;
+            }
+
+            Map<UUID, MatchScore> matches = new HashMap<>();
+            patientService.autoMatchPatient(patient.get()).forEach((candidateId, score) -> {
+                if (score != MatchScore.NO_MATCH) {
+                    matches.put(candidateId, score);
+                }
+            });
+
+            if (matches.isEmpty()) {
+                matchCandidateRepository.deleteInvolving(patientId);
+                return;
+            }
+            matchCandidateRepository.deleteInvolvingExcept(patientId, matches.keySet());
+            Instant now = Instant.now();
+            matches.forEach((candidateId, score) -> {
+                // Lower id first, so two workers writing the same pair lock its rows in the same order.
+                UUID first = patientId.compareTo(candidateId) < 0 ? patientId : candidateId;
+                UUID second = first == patientId ? candidateId : patientId;
+                matchCandidateRepository.upsert(first, second, score.name(), now);
+                matchCandidateRepository.upsert(second, first, score.name(), now);
+            });
+        });
+    }
+
+    public List<PatientMatchCandidate> getCandidates(UUID patientId) {
+        if (!patientRepository.existsById(patientId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Patient not found");
+        }
+        return matchCandidateRepository.findByPatientIdOrderByScoreAscCandidatePatientIdAsc(patientId);
+    }
+
+    private enum MatchState {
+        QUEUED, RUNNING, RERUN
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package xs.test2.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.stereotype.Component;
+import xs.test2.shared.MatchCandidate;
+import xs.test2.shared.MatchScore;
+import xs.test2.shared.MatchValue;
+import xs.test2.shared.StringSimilarity;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Fellegi-Sunter style scorer. Each field adds its agreement weight when both records have it
+ * and the values agree, its disagreement weight when both have it and they differ, and nothing
+ * when either side is missing it; the total is compared against the auto-match and review
+ * thresholds. Near misses are partial agreements rather than disagreements: a name that sounds
+ * the same (same phonetic key), or has the same surname and a first name spelled nearly the same
+ * (Jaro-Winkler of at least {@code name-similarity-threshold}), counts as NAME_SIMILAR, and an
+ * email within {@code email-max-edits} edits counts as EMAIL_SIMILAR. The first names are
+ * compared on their own because a shared surname dominates the whole key ("oliver brown" and
+ * "olivia brown" score 0.90). Partial agreements can lift a pair to REVIEW but never count
+ * towards the auto-match threshold.
+ * <p>
+ * A pair's outcome is a bitmask (agreements in the low bits, disagreements above them) and
+ * the MatchScore of every possible mask is computed once in the constructor, so combining the
+ * field results is a single array lookup.
+ * <p>
+ * Weights are read from {@code test2.match-score.<field>.agree} and {@code .disagree}, where
+ * field is name, name-similar, dob, phone, email or email-similar. With the defaults, three agreeing fields
+ * including name and dob auto-match and any two agreeing fields go to review. AUTO_MATCH always
+ * needs the exact name: a sound-alike name (Jon/Joan share a phonetic key) with the same dob,
+ * phone and email is a pair of twins as often as a duplicate, so it goes to review.
+ */
+@Component
+public class PatientMatchScorer {
+
+    private static final int FIELD_COUNT = MatchValue.values().length;
+    private static final int NAME = MatchValue.NAME.ordinal();
+    private static final int NAME_SIMILAR = MatchValue.NAME_SIMILAR.ordinal();
+    private static final int DOB = MatchValue.DOB.ordinal();
+    private static final int PHONE = MatchValue.PHONE.ordinal();
+    private static final int EMAIL = MatchValue.EMAIL.ordinal();
+    private static final int EMAIL_SIMILAR = MatchValue.EMAIL_SIMILAR.ordinal();
+    private static final MatchScore[] MATCH_SCORES = MatchScore.values();
+
+    private static final Map<MatchValue, Double> DEFAULT_AGREEMENT_WEIGHTS = new EnumMap<>(Map.of(
+            MatchValue.NAME, 3.0,
+            MatchValue.NAME_SIMILAR, 1.0,
+            MatchValue.DOB, 3.0,
+            MatchValue.PHONE, 2.0,
+            MatchValue.EMAIL, 2.0,
+            MatchValue.EMAIL_SIMILAR, 1.0));
+
+    private final byte[] scores = new byte[1 << (2 * FIELD_COUNT)];
+    private final double nameSimilarityThreshold;
+    private final int emailMaxEdits;
+
+    public PatientMatchScorer() {
+        this(new StandardEnvironment());
+    }
+
+    @Autowired
+    public PatientMatchScorer(Environment environment) {
+        double[] agreementWeights = new double[FIELD_COUNT];
+        double[] disagreementWeights = new double[FIELD_COUNT];
+        for (MatchValue field : MatchValue.values()) {
+            String prefix = "test2.match-score." + field.name().toLowerCase(Locale.ROOT).replace('_', '-');
+            agreementWeights[field.ordinal()] = environment.getProperty(prefix + ".agree", Double.class,
+                    DEFAULT_AGREEMENT_WEIGHTS.get(field));
+            disagreementWeights[field.ordinal()] = environment.getProperty(prefix + ".disagree", Double.class, 0.0);
+        }
+        double autoMatchThreshold = environment.getProperty("test2.match-score.auto-match-threshold", Double.class, 8.0);
+        double reviewThreshold = environment.getProperty("test2.match-score.review-threshold", Double.class, 4.0);
+        if (reviewThreshold > autoMatchThreshold) {
+            throw new IllegalStateException("test2.match-score.review-threshold (" + reviewThreshold
+                    + ") must not exceed test2.match-score.auto-match-threshold (" + autoMatchThreshold + ")");
+        }
+        nameSimilarityThreshold = environment.getProperty("test2.match-score.name-similarity-threshold",
+                Double.class, 0.9);
+        emailMaxEdits = environment.getProperty("test2.match-score.email-max-edits", Integer.class, 1);
+
+        for (int outcome = 0; outcome < scores.length; outcome++) {
+            double weight = 0;
+            double partialWeight = 0;
+            for (int field = 0; field < FIELD_COUNT; field++) {
+                if ((outcome & agrees(field)) != 0) {
+                    weight += agreementWeights[field];
+                    if (field == NAME_SIMILAR || field == EMAIL_SIMILAR) {
+                        partialWeight += agreementWeights[field];
+                    }
+                } else if ((outcome & disagrees(field)) != 0) {
+                    weight += disagreementWeights[field];
+                }
+            }
+            // Without an exact name agreement a pair is at most REVIEW, whatever the weights.
+            boolean exactName = (outcome & agrees(NAME)) != 0;
+            boolean autoMatch = exactName && weight - partialWeight >= autoMatchThreshold;
+            MatchScore score = autoMatch ? MatchScore.AUTO_MATCH
+                    : weight >= reviewThreshold ? MatchScore.REVIEW
+                    : MatchScore.NO_MATCH;
+            scores[outcome] = (byte) score.ordinal();
+        }
+    }
+
+    public MatchScore score(MatchCandidate patient, MatchCandidate candidate) {
+        return MATCH_SCORES[scores[outcome(patient, candidate)]];
+    }
+
+    int outcome(MatchCandidate patient, MatchCandidate candidate) {
+        return compareNames(patient, candidate)
+                | compare(patient.dob(), candidate.dob(), DOB)
+                | compare(patient.phoneNo(), candidate.phoneNo(), PHONE)
+                | compareEmails(patient.email(), candidate.email());
+    }
+
+    private int compareNames(MatchCandidate patient, MatchCandidate candidate) {
+        String nameKey = patient.nameKey();
+        String otherNameKey = candidate.nameKey();
+        if (nameKey == null || otherNameKey == null || nameKey.isBlank() || otherNameKey.isBlank()) {
+            return 0;
+        }
+        if (nameKey.equals(otherNameKey)) {
+            return agrees(NAME);
+        }
+        if ((patient.namePhonetic() != null && patient.namePhonetic().equals(candidate.namePhonetic()))
+                || similarFirstNameSameSurname(nameKey, otherNameKey)) {
+            return agrees(NAME_SIMILAR);
+        }
+        return disagrees(NAME);
+    }
+
+    /**
+     * Name keys are "first last" with no spaces inside either part (see NameKeys).
+     */
+    private boolean similarFirstNameSameSurname(String nameKey, String otherNameKey) {
+        int split = nameKey.indexOf(' ');
+        int otherSplit = otherNameKey.indexOf(' ');
+        int surnameLength = nameKey.length() - split - 1;
+        if (split <= 0 || otherSplit <= 0 || surnameLength == 0
+                || surnameLength != otherNameKey.length() - otherSplit - 1
+                || !nameKey.regionMatches(split + 1, otherNameKey, otherSplit + 1, surnameLength)) {
+            return false;
+        }
+        return StringSimilarity.jaroWinkler(nameKey, 0, split, otherNameKey, 0, otherSplit,
+                nameSimilarityThreshold) > 0.0;
+    }
+
+    private int compareEmails(String email, String otherEmail) {
+        if (email == null || otherEmail == null) {
+            return 0;
+        }
+        if (email.equals(otherEmail)) {
+            return agrees(EMAIL);
+        }
+        if (StringSimilarity.levenshtein(email, otherEmail, emailMaxEdits) <= emailMaxEdits) {
+            return agrees(EMAIL_SIMILAR);
+        }
+        return disagrees(EMAIL);
+    }
+
+    private static int compare(Object value, Object otherValue, int field) {
+        if (value == null || otherValue == null) {
+            return 0;
+        }
+        return value.equals(otherValue) ? agrees(field) : disagrees(field);
+    }
+
+    private static int agrees(int field) {
+        return 1 << field;
+    }
+
+    private static int disagrees(int field) {
+        return 1 << (field + FIELD_COUNT);
+    }
+}
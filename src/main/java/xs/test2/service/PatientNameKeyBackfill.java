@@ -0,0 +1,54 @@
+package xs.test2.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import xs.test2.shared.NameKeys;
+
+import java.util.List;
+
+/**
+ * Fills name_key and name_phonetic for rows that never went through the Patient entity
+ * callbacks: patients stored before the columns existed and rows loaded with COPY.
+ * Runs once after startup in batches; with nothing to do it costs a single indexed query.
+ */
+@Component
+public class PatientNameKeyBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientNameKeyBackfill.class);
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PatientNameKeyBackfill(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        long updated = 0;
+        List<Object[]> batch;
+        do {
+            batch = jdbcTemplate.query(
+                    "SELECT id, first_name, last_name FROM patient WHERE name_key IS NULL LIMIT ?",
+                    (rs, rowNum) -> {
+                        String firstName = rs.getString("first_name");
+                        String lastName = rs.getString("last_name");
+                        return new Object[]{NameKeys.nameKey(firstName, lastName),
+                                NameKeys.phoneticKey(firstName, lastName), rs.getObject("id")};
+                    },
+                    BATCH_SIZE);
+            if (!batch.isEmpty()) {
+                jdbcTemplate.batchUpdate("UPDATE patient SET name_key = ?, name_phonetic = ? WHERE id = ?", batch);
+                updated += batch.size();
+            }
+        } while (batch.size() == BATCH_SIZE);
+        if (updated > 0) {
+            log.info("Backfilled name keys for {} patients", updated);
+        }
+    }
+}
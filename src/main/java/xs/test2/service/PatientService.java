@@ -1,7 +1,12 @@
 package xs.test2.service;
 
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.Hibernate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
@@ -9,51 +14,108 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
+import xs.test2.dto.CursorSliceDTO;
 import xs.test2.dto.NewPatientIdentifierDTO;
+import xs.test2.dto.PatientMergeRequestDTO;
 import xs.test2.dto.PatientRequestDTO;
+import xs.test2.event.IdentifierChangedEvent;
+import xs.test2.event.PatientChangedEvent;
 import xs.test2.shared.IdentifierType;
 import xs.test2.entity.Patient;
 import xs.test2.entity.PatientIdentifier;
+import xs.test2.entity.PatientMergeHistory;
+import xs.test2.shared.MatchCandidate;
 import xs.test2.shared.MatchScore;
-import xs.test2.shared.MatchValue;
 import xs.test2.shared.PatientStatus;
 import xs.test2.mapper.PatientMapper;
+import xs.test2.repository.PatientIdentifierRepository;
+import xs.test2.repository.PatientMergeHistoryRepository;
 import xs.test2.repository.PatientRepository;
 
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 
+/**
+ * Every public method is timed as patient.service (tags class, method, exception) through the
+ * TimedAspect; calls from inside this class are not proxied and are counted in their caller.
+ */
 @Service
+@Timed("patient.service")
 public class PatientService {
 
     private static final Logger log = LoggerFactory.getLogger(PatientService.class);
 
+    private static final int MIN_TRIGRAM_SEARCH_LENGTH = 3;
+    static final int MAX_PAGE_SIZE = 1000;
+    static final int MAX_SEARCH_RESULTS = 1000;
+    private static final UUID FIRST_ID = new UUID(0L, 0L);
+
     private final PatientRepository patientRepository;
+    private final PatientIdentifierRepository patientIdentifierRepository;
+    private final PatientMergeHistoryRepository patientMergeHistoryRepository;
     private final PatientMapper patientMapper;
     private final PhoneNumberService phoneNumberService;
-
-    public PatientService(PatientRepository patientRepository, PatientMapper patientMapper,
-                          PhoneNumberService phoneNumberService) {
+    private final PatientMatchIndex patientMatchIndex;
+    private final PatientMatchScorer patientMatchScorer;
+    private final PatientCacheInspector patientCacheInspector;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Map<MatchScore, Counter> matchScoreCounters = new EnumMap<>(MatchScore.class);
+
+    public PatientService(PatientRepository patientRepository, PatientIdentifierRepository patientIdentifierRepository,
+                          PatientMergeHistoryRepository patientMergeHistoryRepository, PatientMapper patientMapper,
+                          PhoneNumberService phoneNumberService, PatientMatchIndex patientMatchIndex,
+                          PatientMatchScorer patientMatchScorer, PatientCacheInspector patientCacheInspector,
+                          ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry) {
         this.patientRepository = patientRepository;
+        this.patientIdentifierRepository = patientIdentifierRepository;
+        this.patientMergeHistoryRepository = patientMergeHistoryRepository;
         this.patientMapper = patientMapper;
         this.phoneNumberService = phoneNumberService;
+        this.patientMatchIndex = patientMatchIndex;
+        this.patientMatchScorer = patientMatchScorer;
+        this.patientCacheInspector = patientCacheInspector;
+        this.eventPublisher = eventPublisher;
+        for (MatchScore score : MatchScore.values()) {
+            matchScoreCounters.put(score, Counter.builder("patient.match.score")
+                    .description("Candidates scored by autoMatchPatient")
+                    .tag("score", score.name())
+                    .register(meterRegistry));
+        }
     }
 
     @Transactional
     public void deletePatient(UUID id) {
+        deletePatient(id, null);
+    }
+
+    @Transactional
+    public void deletePatient(UUID id, Long expectedVersion) {
         Patient patient = getPatientById(id);
+        checkVersion(patient, expectedVersion);
         patientRepository.delete(patient);
+        eventPublisher.publishEvent(new PatientChangedEvent(id, null));
     }
 
     @Transactional
     public Patient createPatient(PatientRequestDTO dto) {
+        Patient saved = saveAndPublish(newPatient(dto));
+        for (PatientIdentifier identifier : saved.getIdentifiers()) {
+            publishIdentifierChanged(identifier.getIdType(), identifier.getIdValue());
+        }
+        return saved;
+    }
+
+    public Patient newPatient(PatientRequestDTO dto) {
         Patient patient = patientMapper.toEntity(dto);
         patient.setStatus(PatientStatus.ACTIVE);
         patient.setIdentifiers(new ArrayList<>());
@@ -77,45 +139,20 @@ public class PatientService {
             patient.getIdentifiers().add(identifier);
         }
 
-        return patientRepository.save(patient);
+        return patient;
     }
 
     public Map<UUID, MatchScore> autoMatchPatient(Patient patient) {
         Map<UUID, MatchScore> results = new HashMap<>();
-        Iterable<Patient> matchingPatients = patientRepository.getMatchingPatients(
-                patient.getId(),
-                patient.getFirstName(),
-                patient.getLastName(),
-                patient.getDob(),
-                patient.getEmail(),
-                patient.getPhoneNo());
-        for (Patient matchingPatient : matchingPatients) {
-            MatchScore score = MatchScore.NO_MATCH;
-            Set<MatchValue> matchValues = new HashSet<>();
-
-            if (Objects.equals(matchingPatient.getFirstName(), patient.getFirstName()) && Objects.equals(matchingPatient.getLastName(), patient.getLastName())) {
-                matchValues.add(MatchValue.NAME);
-            }
-
-            if (Objects.equals(matchingPatient.getDob(), patient.getDob())) {
-                matchValues.add(MatchValue.DOB);
-            }
-
-            if (Objects.equals(matchingPatient.getEmail(), patient.getEmail())) {
-                matchValues.add(MatchValue.EMAIL);
-            }
-
-            if (Objects.equals(matchingPatient.getPhoneNo(), patient.getPhoneNo())) {
-                matchValues.add(MatchValue.PHONE);
-            }
-
-            if (matchValues.size() > 2 && matchValues.contains(MatchValue.NAME) && matchValues.contains(MatchValue.DOB)) {
-                score = MatchScore.AUTO_MATCH;
-            } else if (matchValues.size() > 1) {
-                score = MatchScore.REVIEW;
-            }
-            results.put(matchingPatient.getId(), score);
-            log.info("Patient {} matched with {} ({})", patient.getId(), matchingPatient.getId(), score);
+        MatchCandidate probe = MatchCandidate.of(patient);
+        List<MatchCandidate> candidates = patientMatchIndex.isEnabled()
+                ? patientRepository.findMatchCandidatesByIdIn(patientMatchIndex.findCandidateIds(probe))
+                : patientRepository.findMatchCandidates(probe);
+        for (MatchCandidate candidate : candidates) {
+            MatchScore score = patientMatchScorer.score(probe, candidate);
+            results.put(candidate.id(), score);
+            matchScoreCounters.get(score).increment();
+            log.info("Patient {} matched with {} ({})", patient.getId(), candidate.id(), score);
         }
         return results;
     }
@@ -125,6 +162,21 @@ public class PatientService {
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Patient not found"));
     }
 
+    /**
+     * Patients already in the second-level cache are assembled from the entity and
+     * collection regions; anything else is loaded with the single entity-graph query.
+     */
+    @Transactional(readOnly = true)
+    public Patient getPatientWithIdentifiers(UUID id) {
+        if (patientCacheInspector.isCached(id)) {
+            Patient patient = getPatientById(id);
+            Hibernate.initialize(patient.getIdentifiers());
+            return patient;
+        }
+        return patientRepository.findWithIdentifiersById(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Patient not found"));
+    }
+
     @Transactional
     public PatientIdentifier addIdentifier(UUID patientId, NewPatientIdentifierDTO dto) {
         Patient patient = getPatientById(patientId);
@@ -134,13 +186,24 @@ public class PatientService {
             idValue = phoneNumberService.normalize(idValue);
         }
 
+        String finalIdValue = idValue;
+        Optional<PatientIdentifier> existing = patient.getIdentifiers().stream()
+                .filter(i -> i.getIdType() == dto.getIdType() && Objects.equals(i.getIdValue(), finalIdValue))
+                .findFirst();
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+
         PatientIdentifier identifier = new PatientIdentifier();
         identifier.setIdType(dto.getIdType());
         identifier.setIdValue(idValue);
         identifier.setPatient(patient);
         patient.getIdentifiers().add(identifier);
+        patient.setUpdatedAt(Instant.now());
 
-        return patientRepository.save(patient).getIdentifiers().getLast();
+        PatientIdentifier saved = patientRepository.save(patient).getIdentifiers().getLast();
+        publishIdentifierChanged(saved.getIdType(), saved.getIdValue());
+        return saved;
     }
 
     public Page<Patient> getPatients(UUID id, String name, Pageable pageable) {
@@ -151,89 +214,88 @@ public class PatientService {
         }
 
         if (name != null && !name.isBlank()) {
-            return patientRepository.findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(
-                    name, name, pageable);
+            String term = name.trim().toLowerCase(Locale.ROOT);
+            String escaped = escapeLike(term);
+            if (term.length() < MIN_TRIGRAM_SEARCH_LENGTH) {
+                return patientRepository.searchByNamePrefix(escaped + "%", MAX_SEARCH_RESULTS, pageable);
+            }
+            return patientRepository.searchByName(term, "%" + escaped + "%", MAX_SEARCH_RESULTS, pageable);
         }
 
         return patientRepository.findAll(pageable);
     }
 
+    public CursorSliceDTO<Patient> scrollPatients(String name, String cursor, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        String[] position = cursor == null || cursor.isBlank()
+                ? new String[]{"", "", FIRST_ID.toString()}
+                : KeysetCursor.decode(cursor, 3);
+        UUID afterId;
+        try {
+            afterId = UUID.fromString(position[2]);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+
+        List<Patient> rows;
+        if (name != null && !name.isBlank()) {
+            String pattern = "%" + escapeLike(name.trim().toLowerCase(Locale.ROOT)) + "%";
+            rows = patientRepository.scrollByNameAfter(pattern, position[0], position[1], afterId, size + 1);
+        } else {
+            rows = patientRepository.scrollAfter(position[0], position[1], afterId, size + 1);
+        }
+
+        if (rows.size() <= size) {
+            return new CursorSliceDTO<>(rows, null, false);
+        }
+        List<Patient> content = rows.subList(0, size);
+        Patient last = content.getLast();
+        String nextCursor = KeysetCursor.encode(Objects.requireNonNullElse(last.getLastName(), ""),
+                last.getFirstName(), last.getId().toString());
+        return new CursorSliceDTO<>(content, nextCursor, true);
+    }
+
     public List<PatientIdentifier> getIdentifiers(UUID patientId) {
-        Patient patient = getPatientById(patientId);
+        Patient patient = getPatientWithIdentifiers(patientId);
         return new ArrayList<>(patient.getIdentifiers());
     }
 
     @Transactional
     public Patient updatePatient(UUID id, PatientRequestDTO dto) {
+        return updatePatient(id, dto, null);
+    }
+
+    /**
+     * The PHONE and EMAIL identifiers mirroring the patient's phone and email are kept in sync with
+     * at most one DELETE and one INSERT ... ON CONFLICT DO NOTHING each, so the identifiers collection
+     * is never loaded and the cost does not grow with the number of identifiers a patient carries.
+     */
+    @Transactional
+    public Patient updatePatient(UUID id, PatientRequestDTO dto, Long expectedVersion) {
         Patient patient = getPatientById(id);
+        checkVersion(patient, expectedVersion);
+
+        String oldPhone = patient.getPhoneNo();
+        String oldEmail = patient.getEmail();
+        String normalizedNewPhone = null;
+        if (dto.getPhoneNo() != null && !dto.getPhoneNo().isBlank()) {
+            normalizedNewPhone = phoneNumberService.normalize(dto.getPhoneNo());
+        }
 
         patient.setFirstName(dto.getFirstName());
         patient.setLastName(dto.getLastName());
         patient.setDob(dto.getDob());
         patient.setGender(dto.getGender());
         patient.setEmail(dto.getEmail());
+        patient.setPhoneNo(normalizedNewPhone);
         patient.setAustralianAddress(dto.getAustralianAddress());
 
-        String oldPhone = patient.getPhoneNo();
-        String newPhone = dto.getPhoneNo();
-        String normalizedNewPhone = null;
-
-        if (newPhone != null && !newPhone.isBlank()) {
-            normalizedNewPhone = phoneNumberService.normalize(newPhone);
-        }
-
-        boolean phoneChanged = !Objects.equals(oldPhone, normalizedNewPhone);
-
-        if (phoneChanged) {
-            patient.setPhoneNo(normalizedNewPhone);
+        syncIdentifier(id, IdentifierType.PHONE, oldPhone, normalizedNewPhone);
+        syncIdentifier(id, IdentifierType.EMAIL, blankToNull(oldEmail), blankToNull(dto.getEmail()));
 
-            Iterator<PatientIdentifier> phoneIterator = patient.getIdentifiers().iterator();
-            while (phoneIterator.hasNext()) {
-                PatientIdentifier i = phoneIterator.next();
-                if (i.getIdType() == IdentifierType.PHONE && (i.getIdValue().equals(oldPhone) || i.getIdValue().equals(normalizedNewPhone))) {
-                    phoneIterator.remove();
-                    break;
-                }
-            }
-
-            if (normalizedNewPhone != null) {
-                PatientIdentifier identifier = new PatientIdentifier();
-                identifier.setIdType(IdentifierType.PHONE);
-                identifier.setIdValue(normalizedNewPhone);
-                identifier.setPatient(patient);
-                patient.getIdentifiers().add(identifier);
-            }
-        }
-
-        String oldEmail = patient.getIdentifiers().stream()
-                .filter(i -> i.getIdType() == IdentifierType.EMAIL)
-                .map(PatientIdentifier::getIdValue)
-                .findFirst()
-                .orElse(null);
-        String newEmail = dto.getEmail();
-
-        boolean emailChanged = !Objects.equals(oldEmail, newEmail);
-
-        if (emailChanged) {
-            Iterator<PatientIdentifier> emailIterator = patient.getIdentifiers().iterator();
-            while (emailIterator.hasNext()) {
-                PatientIdentifier i = emailIterator.next();
-                if (i.getIdType() == IdentifierType.EMAIL && (i.getIdValue().equals(oldEmail) || i.getIdValue().equals(newEmail))) {
-                    emailIterator.remove();
-                    break;
-                }
-            }
-
-            if (newEmail != null && !newEmail.isBlank()) {
-                PatientIdentifier identifier = new PatientIdentifier();
-                identifier.setIdType(IdentifierType.EMAIL);
-                identifier.setIdValue(newEmail);
-                identifier.setPatient(patient);
-                patient.getIdentifiers().add(identifier);
-            }
-        }
-
-        return patientRepository.save(patient);
+        return saveAndPublish(patient);
     }
 
     @Transactional
@@ -255,6 +317,111 @@ public class PatientService {
         }
 
         patient.getIdentifiers().remove(identifier);
+        patient.setUpdatedAt(Instant.now());
         patientRepository.save(patient);
+        publishIdentifierChanged(identifier.getIdType(), identifier.getIdValue());
+    }
+
+    @Transactional
+    public Patient mergePatients(UUID keepId, UUID discardId) {
+        mergePair(keepId, discardId);
+        return getPatientWithIdentifiers(keepId);
+    }
+
+    @Transactional
+    public void mergePatients(List<PatientMergeRequestDTO> merges) {
+        Set<UUID> keepIds = new HashSet<>();
+        Set<UUID> discardIds = new HashSet<>();
+        for (PatientMergeRequestDTO merge : merges) {
+            if (merge.getKeepPatientId() == null || merge.getDiscardPatientId() == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Keep and discard patient ids are required");
+            }
+            if (!discardIds.add(merge.getDiscardPatientId())) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Patient " + merge.getDiscardPatientId() + " is discarded more than once");
+            }
+            keepIds.add(merge.getKeepPatientId());
+        }
+        keepIds.retainAll(discardIds);
+        if (!keepIds.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Patient " + keepIds.iterator().next() + " is both kept and discarded");
+        }
+
+        for (PatientMergeRequestDTO merge : merges) {
+            mergePair(merge.getKeepPatientId(), merge.getDiscardPatientId());
+        }
+    }
+
+    /**
+     * Identifiers are moved with two statements instead of through the entity collections:
+     * rows the keep patient already has are deleted first so the UPDATE cannot violate
+     * uk_patient_id_type_value, then everything left is re-pointed in one go.
+     */
+    private void mergePair(UUID keepId, UUID discardId) {
+        if (keepId.equals(discardId)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cannot merge a patient into itself");
+        }
+        Patient keep = getPatientById(keepId);
+        if (keep.getStatus() == PatientStatus.MERGED) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Patient " + keepId + " is already merged");
+        }
+        if (patientRepository.markMerged(discardId) == 0) {
+            if (!patientRepository.existsById(discardId)) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Patient not found");
+            }
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Patient " + discardId + " is already merged");
+        }
+
+        int duplicates = patientIdentifierRepository.deleteDuplicatesOf(keepId, discardId);
+        int moved = patientIdentifierRepository.movePatientIdentifiers(keepId, discardId);
+        patientRepository.touch(keepId);
+
+        PatientMergeHistory history = new PatientMergeHistory();
+        history.setKeepPatient(patientRepository.getReferenceById(keepId));
+        history.setDiscardPatient(patientRepository.getReferenceById(discardId));
+        patientMergeHistoryRepository.save(history);
+
+        eventPublisher.publishEvent(new PatientChangedEvent(discardId, null));
+        log.info("Merged patient {} into {} ({} identifiers moved, {} duplicates dropped)",
+                discardId, keepId, moved, duplicates);
+    }
+
+    private void syncIdentifier(UUID patientId, IdentifierType idType, String oldValue, String newValue) {
+        if (Objects.equals(oldValue, newValue)) {
+            return;
+        }
+        if (oldValue != null) {
+            patientIdentifierRepository.deleteIdentifier(patientId, idType.name(), oldValue);
+            publishIdentifierChanged(idType, oldValue);
+        }
+        if (newValue != null) {
+            patientIdentifierRepository.insertIdentifierIfAbsent(patientId, idType.name(), newValue);
+            publishIdentifierChanged(idType, newValue);
+        }
+    }
+
+    private void publishIdentifierChanged(IdentifierType idType, String idValue) {
+        eventPublisher.publishEvent(new IdentifierChangedEvent(idType, idValue));
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    private static void checkVersion(Patient patient, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(patient.getVersion())) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Patient has been modified");
+        }
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private Patient saveAndPublish(Patient patient) {
+        Patient saved = patientRepository.save(patient);
+        eventPublisher.publishEvent(new PatientChangedEvent(saved.getId(), MatchCandidate.of(saved)));
+        return saved;
     }
 }
@@ -6,31 +6,78 @@ import org.springframework.stereotype.Service;
 @Service
 public class PhoneNumberService {
 
-    @Value("${test2.country-code}")
-    private String countryCode;
+    private final char[] countryCodeDigits;
 
+    public PhoneNumberService(@Value("${test2.country-code}") String countryCode) {
+        this.countryCodeDigits = digitsOf(countryCode);
+    }
+
+    /**
+     * Single pass over the input: ASCII digits are copied into one buffer laid out as
+     * {@code [+][country code][digits]}, so every normalized form is a slice of that
+     * buffer and the only other allocation is the returned String.
+     */
     public String normalize(String phoneNumber) {
         if (phoneNumber == null || phoneNumber.isBlank()) {
             return phoneNumber;
         }
 
-        String digits = phoneNumber.replaceAll("[^0-9]", "");
-        boolean hasPlus = phoneNumber.trim().startsWith("+");
-        String cc = countryCode.replaceAll("[^0-9]", "");
+        int ccLength = countryCodeDigits.length;
+        int base = 1 + ccLength;
+        char[] buffer = new char[base + phoneNumber.length()];
+        int digitCount = 0;
+        boolean leading = true;
+        boolean hasPlus = false;
 
-        if (hasPlus) {
-            return "+" + digits;
+        for (int i = 0; i < phoneNumber.length(); i++) {
+            char c = phoneNumber.charAt(i);
+            if (c >= '0' && c <= '9') {
+                buffer[base + digitCount++] = c;
+            }
+            if (leading && c > ' ') {
+                hasPlus = c == '+';
+                leading = false;
+            }
         }
-        if (digits.startsWith(cc)) {
-            return "+" + digits;
+
+        if (hasPlus || startsWithCountryCode(buffer, base, digitCount)) {
+            buffer[base - 1] = '+';
+            return new String(buffer, base - 1, digitCount + 1);
         }
-        if (digits.length() == 9 && digits.startsWith("4")) {
-            return "+" + cc + digits;
+        if (digitCount == 9 && buffer[base] == '4') {
+            buffer[0] = '+';
+            System.arraycopy(countryCodeDigits, 0, buffer, 1, ccLength);
+            return new String(buffer, 0, base + 9);
         }
-        if (digits.length() == 10 && digits.startsWith("0")) {
-            return "+" + cc + digits.substring(1);
+        if (digitCount == 10 && buffer[base] == '0') {
+            buffer[1] = '+';
+            System.arraycopy(countryCodeDigits, 0, buffer, 2, ccLength);
+            return new String(buffer, 1, base + 9);
         }
 
         return phoneNumber;
     }
+
+    private boolean startsWithCountryCode(char[] buffer, int offset, int digitCount) {
+        if (digitCount < countryCodeDigits.length) {
+            return false;
+        }
+        for (int i = 0; i < countryCodeDigits.length; i++) {
+            if (buffer[offset + i] != countryCodeDigits[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static char[] digitsOf(String value) {
+        StringBuilder digits = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        return digits.toString().toCharArray();
+    }
 }
@@ -0,0 +1,7 @@
+package xs.test2.shared;
+
+public enum DedupeJobStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
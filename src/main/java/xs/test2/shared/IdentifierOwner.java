@@ -0,0 +1,6 @@
+package xs.test2.shared;
+
+import java.util.UUID;
+
+public record IdentifierOwner(IdentifierType idType, String idValue, UUID patientId) {
+}
@@ -0,0 +1,24 @@
+package xs.test2.shared;
+
+import xs.test2.entity.Patient;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * The fields auto-matching looks at. nameKey and namePhonetic are derived from the names
+ * (see {@link NameKeys}) when the short constructor is used.
+ */
+public record MatchCandidate(UUID id, String firstName, String lastName, LocalDate dob, String email,
+                             String phoneNo, String nameKey, String namePhonetic) {
+
+    public MatchCandidate(UUID id, String firstName, String lastName, LocalDate dob, String email, String phoneNo) {
+        this(id, firstName, lastName, dob, email, phoneNo,
+                NameKeys.nameKey(firstName, lastName), NameKeys.phoneticKey(firstName, lastName));
+    }
+
+    public static MatchCandidate of(Patient patient) {
+        return new MatchCandidate(patient.getId(), patient.getFirstName(), patient.getLastName(),
+                patient.getDob(), patient.getEmail(), patient.getPhoneNo());
+    }
+}
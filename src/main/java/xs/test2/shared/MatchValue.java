@@ -2,7 +2,9 @@ package xs.test2.shared;
 
 public enum MatchValue {
     NAME,
+    NAME_SIMILAR,
     DOB,
     PHONE,
-    EMAIL
+    EMAIL,
+    EMAIL_SIMILAR
 }
@@ -0,0 +1,55 @@
+package xs.test2.shared;
+
+import org.apache.commons.codec.language.DoubleMetaphone;
+
+import java.text.Normalizer;
+
+/**
+ * Match keys derived from a patient's name. The name key is the first and last name folded to
+ * lowercase letters ("  Sean O'Brien" and "SEAN OBRIEN" give the same key, accents are dropped,
+ * other scripts are kept as they are) and is what name agreement is scored on. The phonetic key
+ * holds the Double Metaphone codes of both parts, so "Jon Smith" and "John Smyth" share it; it
+ * is the blocking key for candidate lookup and is null unless both parts have a code. Double
+ * Metaphone only codes Latin letters, so names in other scripts are blocked on their other keys.
+ */
+public final class NameKeys {
+
+    private static final DoubleMetaphone DOUBLE_METAPHONE = new DoubleMetaphone();
+
+    private NameKeys() {
+    }
+
+    public static String nameKey(String firstName, String lastName) {
+        return normalize(firstName) + ' ' + normalize(lastName);
+    }
+
+    public static String phoneticKey(String firstName, String lastName) {
+        String first = normalize(firstName);
+        String last = normalize(lastName);
+        if (first.isEmpty() || last.isEmpty()) {
+            return null;
+        }
+        String firstCode = DOUBLE_METAPHONE.doubleMetaphone(first);
+        String lastCode = DOUBLE_METAPHONE.doubleMetaphone(last);
+        if (firstCode.isEmpty() || lastCode.isEmpty()) {
+            return null;
+        }
+        return firstCode + ' ' + lastCode;
+    }
+
+    /**
+     * Strips accents, case and everything that is not a letter; null becomes "".
+     */
+    static String normalize(String name) {
+        if (name == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(name, Normalizer.Form.NFD);
+        StringBuilder key = new StringBuilder(decomposed.length());
+        decomposed.codePoints()
+                .filter(Character::isLetter)
+                .map(Character::toLowerCase)
+                .forEach(key::appendCodePoint);
+        return key.toString();
+    }
+}
@@ -0,0 +1,254 @@
+package xs.test2.shared;
+
+import java.util.Arrays;
+
+/**
+ * String similarity for match scoring: Jaro-Winkler for names and a bounded Levenshtein distance
+ * for short values such as emails. Both take a threshold and give up as soon as the result can no
+ * longer reach it, which is the common case when scoring candidates.
+ * <p>
+ * The Jaro match search (for each character, the first unmatched equal character of the other
+ * string inside the match window) runs on the incubator Vector API when the JVM is started with
+ * {@code --add-modules jdk.incubator.vector}. Without the module, or with
+ * {@code -Dtest2.similarity.vector=false}, a scalar loop does the same work.
+ * <p>
+ * Neither comparison allocates: both work on index ranges and per-thread scratch arrays.
+ */
+public final class StringSimilarity {
+
+    /** Most short lanes a vector can have (512-bit); the second string's matched flags are padded by this much. */
+    static final int MAX_LANES = 32;
+
+    private static final double WINKLER_SCALE = 0.1;
+    private static final double WINKLER_BOOST_THRESHOLD = 0.7;
+    private static final int WINKLER_MAX_PREFIX = 4;
+
+    static final MatchKernel SCALAR = new ScalarMatchKernel();
+    static final MatchKernel KERNEL = defaultKernel();
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private StringSimilarity() {
+    }
+
+    public static boolean isVectorized() {
+        return KERNEL != SCALAR;
+    }
+
+    public static double jaroWinkler(String a, String b) {
+        return jaroWinkler(KERNEL, a, 0, a.length(), b, 0, b.length(), 0.0);
+    }
+
+    /**
+     * Jaro-Winkler similarity of a and b, or 0 once it is certain to be below threshold.
+     */
+    public static double jaroWinkler(String a, String b, double threshold) {
+        return jaroWinkler(KERNEL, a, 0, a.length(), b, 0, b.length(), threshold);
+    }
+
+    /**
+     * Jaro-Winkler similarity of a[aFrom, aTo) and b[bFrom, bTo), so callers can compare part of a
+     * key without cutting it out first.
+     */
+    public static double jaroWinkler(String a, int aFrom, int aTo, String b, int bFrom, int bTo, double threshold) {
+        return jaroWinkler(KERNEL, a, aFrom, aTo, b, bFrom, bTo, threshold);
+    }
+
+    static double jaroWinkler(MatchKernel kernel, String a, String b, double threshold) {
+        return jaroWinkler(kernel, a, 0, a.length(), b, 0, b.length(), threshold);
+    }
+
+    static double jaroWinkler(MatchKernel kernel, String a, int aFrom, int aTo, String b, int bFrom, int bTo,
+            double threshold) {
+        if (aTo - aFrom > bTo - bFrom) {
+            return jaroWinkler(kernel, b, bFrom, bTo, a, aFrom, aTo, threshold);
+        }
+        int shorter = aTo - aFrom;
+        int longer = bTo - bFrom;
+        if (shorter == longer && a.regionMatches(aFrom, b, bFrom, shorter)) {
+            return 1.0;
+        }
+        if (shorter == 0) {
+            return 0.0;
+        }
+        int prefix = commonPrefix(a, aFrom, b, bFrom, shorter);
+        // Best case: every character of the shorter string matches, in order.
+        if (winkler(jaro(shorter, shorter, longer, 0), prefix) < threshold) {
+            return 0.0;
+        }
+
+        Scratch scratch = SCRATCH.get().ensure(longer);
+        char[] first = scratch.first;
+        char[] second = scratch.second;
+        boolean[] firstMatched = scratch.firstMatched;
+        boolean[] secondMatched = scratch.secondMatched;
+        a.getChars(aFrom, aTo, first, 0);
+        b.getChars(bFrom, bTo, second, 0);
+        Arrays.fill(firstMatched, 0, shorter, false);
+        Arrays.fill(secondMatched, 0, longer, false);
+        int matches = kernel.match(first, shorter, second, longer, firstMatched, secondMatched,
+                Math.max(0, longer / 2 - 1));
+        if (matches == 0 || winkler(jaro(matches, shorter, longer, 0), prefix) < threshold) {
+            return 0.0;
+        }
+
+        int halfTranspositions = 0;
+        for (int i = 0, j = 0; i < shorter; i++) {
+            if (firstMatched[i]) {
+                while (!secondMatched[j]) {
+                    j++;
+                }
+                if (first[i] != second[j]) {
+                    halfTranspositions++;
+                }
+                j++;
+            }
+        }
+        double similarity = winkler(jaro(matches, shorter, longer, halfTranspositions / 2.0), prefix);
+        return similarity >= threshold ? similarity : 0.0;
+    }
+
+    /**
+     * Levenshtein distance between a and b, or maxDistance + 1 once it is certain to exceed
+     * maxDistance. Only the diagonal band of width 2 * maxDistance + 1 is computed.
+     */
+    public static int levenshtein(String a, String b, int maxDistance) {
+        if (a.length() > b.length()) {
+            String swap = a;
+            a = b;
+            b = swap;
+        }
+        int n = a.length();
+        int m = b.length();
+        int limit = maxDistance + 1;
+        if (m - n > maxDistance) {
+            return limit;
+        }
+        if (n == 0) {
+            return m;
+        }
+
+        Scratch scratch = SCRATCH.get().ensure(n + 1);
+        int[] previous = scratch.previous;
+        int[] current = scratch.current;
+        for (int i = 0; i <= n; i++) {
+            previous[i] = Math.min(i, limit);
+        }
+        for (int j = 1; j <= m; j++) {
+            int from = Math.max(1, j - maxDistance);
+            int to = Math.min(n, j + maxDistance);
+            current[0] = Math.min(j, limit);
+            if (from > 1) {
+                current[from - 1] = limit;
+            }
+            int rowMin = current[0];
+            char c = b.charAt(j - 1);
+            for (int i = from; i <= to; i++) {
+                int substitution = previous[i - 1] + (a.charAt(i - 1) == c ? 0 : 1);
+                int distance = Math.min(substitution, Math.min(previous[i], current[i - 1]) + 1);
+                current[i] = Math.min(distance, limit);
+                rowMin = Math.min(rowMin, current[i]);
+            }
+            if (to < n) {
+                current[to + 1] = limit;
+            }
+            if (rowMin > maxDistance) {
+                return limit;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[n];
+    }
+
+    private static double jaro(int matches, int shorter, int longer, double transpositions) {
+        return ((double) matches / shorter + (double) matches / longer + (matches - transpositions) / matches) / 3.0;
+    }
+
+    private static double winkler(double jaro, int prefix) {
+        return jaro < WINKLER_BOOST_THRESHOLD ? jaro : jaro + prefix * WINKLER_SCALE * (1.0 - jaro);
+    }
+
+    private static int commonPrefix(String a, int aFrom, String b, int bFrom, int shorter) {
+        int max = Math.min(WINKLER_MAX_PREFIX, shorter);
+        int prefix = 0;
+        while (prefix < max && a.charAt(aFrom + prefix) == b.charAt(bFrom + prefix)) {
+            prefix++;
+        }
+        return prefix;
+    }
+
+    private static MatchKernel defaultKernel() {
+        if (!Boolean.parseBoolean(System.getProperty("test2.similarity.vector", "true"))
+                || ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return SCALAR;
+        }
+        try {
+            // Loaded reflectively so the scalar path never links against the incubator module.
+            return (MatchKernel) Class.forName("xs.test2.shared.VectorMatchKernel")
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return SCALAR;
+        }
+    }
+
+    /**
+     * Marks the Jaro matches between the first firstLength chars of first and the first
+     * secondLength chars of second and returns how many there are. The arrays may be longer;
+     * secondMatched is at least secondLength + MAX_LANES long.
+     */
+    interface MatchKernel {
+        int match(char[] first, int firstLength, char[] second, int secondLength,
+                boolean[] firstMatched, boolean[] secondMatched, int window);
+    }
+
+    /**
+     * Per-thread working arrays, grown on demand and reused across calls so scoring a candidate
+     * pair does not allocate. Pipeline workers are long-lived, so each keeps one set; a request
+     * thread pays for one set per request rather than per pair.
+     */
+    private static final class Scratch {
+
+        char[] first = new char[0];
+        char[] second = new char[0];
+        boolean[] firstMatched = new boolean[0];
+        boolean[] secondMatched = new boolean[0];
+        int[] previous = new int[0];
+        int[] current = new int[0];
+
+        Scratch ensure(int length) {
+            if (first.length < length) {
+                int capacity = Math.max(length, 2 * first.length);
+                first = new char[capacity];
+                second = new char[capacity];
+                firstMatched = new boolean[capacity];
+                secondMatched = new boolean[capacity + MAX_LANES];
+                previous = new int[capacity];
+                current = new int[capacity];
+            }
+            return this;
+        }
+    }
+
+    static final class ScalarMatchKernel implements MatchKernel {
+
+        @Override
+        public int match(char[] first, int firstLength, char[] second, int secondLength,
+                boolean[] firstMatched, boolean[] secondMatched, int window) {
+            int matches = 0;
+            for (int i = 0; i < firstLength; i++) {
+                int end = Math.min(secondLength, i + window + 1);
+                for (int j = Math.max(0, i - window); j < end; j++) {
+                    if (!secondMatched[j] && first[i] == second[j]) {
+                        firstMatched[i] = true;
+                        secondMatched[j] = true;
+                        matches++;
+                        break;
+                    }
+                }
+            }
+            return matches;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_patient_first_name_trgm ON patient USING gin (lower(first_name) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_patient_last_name_trgm ON patient USING gin (lower(last_name) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_patient_first_name_prefix ON patient (lower(first_name) text_pattern_ops);
+CREATE INDEX IF NOT EXISTS idx_patient_last_name_prefix ON patient (lower(last_name) text_pattern_ops);
+CREATE INDEX IF NOT EXISTS idx_patient_keyset ON patient ((coalesce(last_name, '')), first_name, id);
+DROP INDEX IF EXISTS idx_patient_name_key;
+CREATE INDEX IF NOT EXISTS idx_patient_name_key_missing ON patient (id) WHERE name_key IS NULL;
+
+CREATE OR REPLACE FUNCTION patient_set_change_txid() RETURNS trigger LANGUAGE plpgsql AS
+'BEGIN
+    NEW.change_txid := pg_current_xact_id()::text::bigint;
+    RETURN NEW;
+END';
+
+CREATE OR REPLACE TRIGGER trg_patient_change_txid
+    BEFORE INSERT OR UPDATE ON patient
+    FOR EACH ROW EXECUTE FUNCTION patient_set_change_txid();
+
+CREATE OR REPLACE FUNCTION patient_record_tombstone() RETURNS trigger LANGUAGE plpgsql AS
+'BEGIN
+    INSERT INTO patient_tombstone (patient_id, change_txid, deleted_at)
+    VALUES (OLD.id, pg_current_xact_id()::text::bigint, now())
+    ON CONFLICT (patient_id) DO UPDATE SET change_txid = EXCLUDED.change_txid, deleted_at = EXCLUDED.deleted_at;
+    RETURN OLD;
+END';
+
+CREATE OR REPLACE TRIGGER trg_patient_tombstone
+    AFTER DELETE ON patient
+    FOR EACH ROW EXECUTE FUNCTION patient_record_tombstone();
+
+UPDATE patient SET change_txid = pg_current_xact_id()::text::bigint WHERE change_txid IS NULL;
+
+ALTER TABLE patient ALTER COLUMN updated_at SET DEFAULT now();
+UPDATE patient SET updated_at = now() WHERE updated_at IS NULL;
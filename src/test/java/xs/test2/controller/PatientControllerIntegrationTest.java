@@ -228,4 +228,24 @@ class PatientControllerIntegrationTest {
 
         assertThat(getDeletedResponse.getStatusCode().value()).isEqualTo(404);
     }
+
+    @Test
+    void prometheusEndpoint_exposesServiceTimersAndStatementCounts() {
+        var localRestClient = RestClient.create();
+
+        localRestClient.get()
+                .uri("http://localhost:%d/api/patient/scroll?size=1".formatted(port))
+                .retrieve()
+                .toBodilessEntity();
+
+        var scrape = localRestClient.get()
+                .uri("http://localhost:%d/actuator/prometheus".formatted(port))
+                .retrieve()
+                .body(String.class);
+
+        assertThat(scrape).contains("patient_service_seconds_count{");
+        assertThat(scrape).contains("method=\"scrollPatients\"");
+        assertThat(scrape).contains("http_server_requests_statements_count{");
+        assertThat(scrape).contains("uri=\"/api/patient/scroll\"");
+    }
 }
@@ -12,8 +12,10 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import xs.test2.dto.CursorSliceDTO;
 import xs.test2.dto.NewPatientIdentifierDTO;
 import xs.test2.dto.PatientDTO;
 import xs.test2.dto.PatientIdentifierDTO;
@@ -33,6 +35,7 @@ import java.util.List;
 import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -111,6 +114,24 @@ class PatientControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void scrollPatients_returnsSliceWithCursor() throws Exception {
+        PatientListEntryDTO dto = new PatientListEntryDTO();
+
+        when(patientService.scrollPatients("John", "abc", 5))
+                .thenReturn(new CursorSliceDTO<>(List.of(testPatient), "next", true));
+        when(patientMapper.toListEntryDTO(testPatient)).thenReturn(dto);
+
+        mockMvc.perform(get("/api/patient/scroll")
+                        .param("name", "John")
+                        .param("cursor", "abc")
+                        .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content").isArray())
+                .andExpect(jsonPath("$.nextCursor").value("next"))
+                .andExpect(jsonPath("$.hasNext").value(true));
+    }
+
     @Test
     void createPatient_withValidData_returnsCreated() throws Exception {
         PatientRequestDTO requestDTO = createPatientRequestDTO();
@@ -128,7 +149,7 @@ class PatientControllerTest {
     void updatePatient_withValidData_returnsOk() throws Exception {
         UUID id = UUID.randomUUID();
 
-        when(patientService.updatePatient(eq(id), any(PatientRequestDTO.class))).thenReturn(testPatient);
+        when(patientService.updatePatient(eq(id), any(PatientRequestDTO.class), isNull())).thenReturn(testPatient);
         when(patientMapper.toDTO(testPatient)).thenReturn(testPatientDTO);
 
         mockMvc.perform(put("/api/patient/{id}", id)
@@ -141,7 +162,7 @@ class PatientControllerTest {
     void getPatient_withValidId_returnsOk() throws Exception {
         UUID id = UUID.randomUUID();
 
-        when(patientService.getPatientById(id)).thenReturn(testPatient);
+        when(patientService.getPatientWithIdentifiers(id)).thenReturn(testPatient);
         when(patientMapper.toDTO(testPatient)).thenReturn(testPatientDTO);
 
         mockMvc.perform(get("/api/patient/{id}", id))
@@ -155,7 +176,45 @@ class PatientControllerTest {
         mockMvc.perform(delete("/api/patient/{id}", id))
                 .andExpect(status().isNoContent());
 
-        verify(patientService).deletePatient(id);
+        verify(patientService).deletePatient(id, null);
+    }
+
+    @Test
+    void getPatient_returnsVersionAsETag() throws Exception {
+        UUID id = UUID.randomUUID();
+        testPatient.setVersion(3L);
+
+        when(patientService.getPatientWithIdentifiers(id)).thenReturn(testPatient);
+        when(patientMapper.toDTO(testPatient)).thenReturn(testPatientDTO);
+
+        mockMvc.perform(get("/api/patient/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""));
+    }
+
+    @Test
+    void updatePatient_withIfMatch_passesExpectedVersion() throws Exception {
+        UUID id = UUID.randomUUID();
+        testPatient.setVersion(4L);
+
+        when(patientService.updatePatient(eq(id), any(PatientRequestDTO.class), eq(3L))).thenReturn(testPatient);
+        when(patientMapper.toDTO(testPatient)).thenReturn(testPatientDTO);
+
+        mockMvc.perform(put("/api/patient/{id}", id)
+                        .header("If-Match", "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\":\"John\",\"lastName\":\"Doe\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""));
+    }
+
+    @Test
+    void deletePatient_withMalformedIfMatch_returnsPreconditionFailed() throws Exception {
+        mockMvc.perform(delete("/api/patient/{id}", UUID.randomUUID())
+                        .header("If-Match", "\"abc\""))
+                .andExpect(status().isPreconditionFailed());
+
+        verifyNoInteractions(patientService);
     }
 
     @Test
@@ -195,6 +254,30 @@ class PatientControllerTest {
                 .andExpect(status().isCreated());
     }
 
+    @Test
+    void addIdentifier_afterConcurrentModification_retries() throws Exception {
+        UUID patientId = UUID.randomUUID();
+        NewPatientIdentifierDTO requestDTO = new NewPatientIdentifierDTO();
+        requestDTO.setIdType(IdentifierType.MRN);
+        requestDTO.setIdValue("MRN-1");
+
+        PatientIdentifier identifier = new PatientIdentifier();
+        identifier.setId(UUID.randomUUID());
+        PatientIdentifierDTO responseDTO = new PatientIdentifierDTO();
+
+        when(patientService.addIdentifier(eq(patientId), any(NewPatientIdentifierDTO.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Patient.class, patientId))
+                .thenReturn(identifier);
+        when(patientIdentifierMapper.toDTO(identifier)).thenReturn(responseDTO);
+
+        mockMvc.perform(post("/api/patient/{id}/identifier", patientId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDTO)))
+                .andExpect(status().isCreated());
+
+        verify(patientService, times(2)).addIdentifier(eq(patientId), any(NewPatientIdentifierDTO.class));
+    }
+
     @Test
     void deleteIdentifier_withValidId_returnsNoContent() throws Exception {
         UUID patientId = UUID.randomUUID();
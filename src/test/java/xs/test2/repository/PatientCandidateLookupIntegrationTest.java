@@ -0,0 +1,148 @@
+package xs.test2.repository;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import xs.test2.entity.Patient;
+import xs.test2.shared.MatchCandidate;
+import xs.test2.shared.PatientStatus;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "test2.match-pipeline.enabled=false")
+class PatientCandidateLookupIntegrationTest {
+
+    static PostgreSQLContainer<?> postgresContainer = new PostgreSQLContainer<>("postgres:18.2")
+            .withDatabaseName("testdb");
+
+    // Every test uses its own dob, email and phone so rows left by one can't match another.
+    private static final LocalDate DOB = LocalDate.of(1931, 3, 3);
+    private static final LocalDate PROJECTED_DOB = LocalDate.of(1932, 4, 4);
+    private static final LocalDate MERGED_DOB = LocalDate.of(1933, 5, 5);
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeAll
+    static void beforeAll() {
+        postgresContainer.start();
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgresContainer::getJdbcUrl);
+        registry.add("spring.datasource.username", postgresContainer::getUsername);
+        registry.add("spring.datasource.password", postgresContainer::getPassword);
+    }
+
+    @Test
+    void findMatchCandidates_returnsEachMatchingPatientOnceExcludingProbe() {
+        Patient probe = savePatient("Candida", "Probe", DOB, "probe@candidates.test", "+61400009001");
+        Patient byName = savePatient("Kandida", "Probe", DOB.plusDays(1), null, null);
+        Patient byDob = savePatient("Other", "Person", DOB, null, null);
+        Patient byEmail = savePatient("Email", "Only", null, "probe@candidates.test", null);
+        Patient byPhone = savePatient("Phone", "Only", null, null, "+61400009001");
+        Patient allKeys = savePatient("Candida", "Probe", DOB, "probe@candidates.test", "+61400009001");
+        savePatient("Unrelated", "Person", DOB.plusDays(2), "unrelated@candidates.test", "+61400009002");
+
+        List<MatchCandidate> candidates = patientRepository.findMatchCandidates(MatchCandidate.of(probe));
+
+        assertThat(candidates).extracting(MatchCandidate::id).containsExactlyInAnyOrder(
+                byName.getId(), byDob.getId(), byEmail.getId(), byPhone.getId(), allKeys.getId());
+        assertThat(candidates).filteredOn(c -> c.id().equals(allKeys.getId())).singleElement()
+                .isEqualTo(MatchCandidate.of(allKeys));
+    }
+
+    @Test
+    void findMatchCandidates_withoutKeys_returnsNothing() {
+        MatchCandidate probe = new MatchCandidate(UUID.randomUUID(), null, null, null, null, null);
+
+        assertThat(PatientCandidateLookupImpl.candidateSql(probe)).isNull();
+        assertThat(patientRepository.findMatchCandidates(probe)).isEmpty();
+    }
+
+    @Test
+    void findMatchCandidatesByIdIn_projectsCandidates() {
+        Patient patient = savePatient("Projected", "Candidate", PROJECTED_DOB, "projected@candidates.test", "+61400009003");
+
+        assertThat(patientRepository.findMatchCandidatesByIdIn(List.of(patient.getId())))
+                .containsExactly(MatchCandidate.of(patient));
+    }
+
+    @Test
+    void candidateLookups_skipMergedPatients() {
+        Patient probe = savePatient("Merged", "Probe", MERGED_DOB, "merged@candidates.test", "+61400009004");
+        Patient merged = savePatient("Merged", "Probe", MERGED_DOB, "merged@candidates.test", "+61400009004");
+        merged.setStatus(PatientStatus.MERGED);
+        patientRepository.save(merged);
+
+        assertThat(patientRepository.findMatchCandidates(MatchCandidate.of(probe))).isEmpty();
+        assertThat(patientRepository.findMatchCandidatesByIdIn(List.of(merged.getId()))).isEmpty();
+        assertThat(patientRepository.findMatchCandidatesByKeys(List.of(), List.of(MERGED_DOB),
+                List.of("merged@candidates.test"), List.of()))
+                .extracting(MatchCandidate::id).containsExactly(probe.getId());
+    }
+
+    /**
+     * The table is far too small for the planner to prefer an index on its own, so sequential
+     * scans are disabled: a branch that can't use its index still shows up as a Seq Scan.
+     */
+    @Test
+    void candidateSql_everyBranchUsesItsIndex() {
+        UUID id = UUID.randomUUID();
+
+        assertThat(explain(new MatchCandidate(id, "Candida", "Probe", null, null, null)))
+                .contains("idx_patient_name_phonetic").doesNotContain("Seq Scan");
+        assertThat(explain(new MatchCandidate(id, null, null, DOB, null, null)))
+                .contains("idx_patient_dob").doesNotContain("Seq Scan");
+        assertThat(explain(new MatchCandidate(id, null, null, null, "probe@candidates.test", null)))
+                .contains("idx_patient_email").doesNotContain("Seq Scan");
+        assertThat(explain(new MatchCandidate(id, null, null, null, null, "+61400009001")))
+                .contains("idx_patient_phone_no").doesNotContain("Seq Scan");
+        assertThat(explain(new MatchCandidate(null, "Candida", "Probe", DOB, "probe@candidates.test", "+61400009001")))
+                .contains("idx_patient_name_phonetic", "idx_patient_dob", "idx_patient_email", "idx_patient_phone_no")
+                .doesNotContain("Seq Scan");
+    }
+
+    private String explain(MatchCandidate probe) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("id", probe.id())
+                .addValue("namePhonetic", probe.namePhonetic())
+                .addValue("dob", probe.dob())
+                .addValue("email", probe.email())
+                .addValue("phoneNo", probe.phoneNo());
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.getJdbcTemplate().execute("SET LOCAL enable_seqscan = off");
+            return String.join("\n", jdbcTemplate.queryForList(
+                    "EXPLAIN " + PatientCandidateLookupImpl.candidateSql(probe), params, String.class));
+        });
+    }
+
+    private Patient savePatient(String firstName, String lastName, LocalDate dob, String email, String phoneNo) {
+        Patient patient = new Patient();
+        patient.setFirstName(firstName);
+        patient.setLastName(lastName);
+        patient.setDob(dob);
+        patient.setEmail(email);
+        patient.setPhoneNo(phoneNo);
+        patient.setStatus(PatientStatus.ACTIVE);
+        return patientRepository.save(patient);
+    }
+}
@@ -0,0 +1,142 @@
+package xs.test2.service;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import xs.test2.dto.IdentifierLookupDTO;
+import xs.test2.dto.NewPatientIdentifierDTO;
+import xs.test2.dto.PatientRequestDTO;
+import xs.test2.entity.Patient;
+import xs.test2.shared.IdentifierType;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "test2.match-pipeline.enabled=false")
+class IdentifierLookupServiceIntegrationTest {
+
+    static PostgreSQLContainer<?> postgresContainer = new PostgreSQLContainer<>("postgres:18.2")
+            .withDatabaseName("testdb");
+
+    @Autowired
+    private IdentifierLookupService identifierLookupService;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void beforeAll() {
+        postgresContainer.start();
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgresContainer::getJdbcUrl);
+        registry.add("spring.datasource.username", postgresContainer::getUsername);
+        registry.add("spring.datasource.password", postgresContainer::getPassword);
+    }
+
+    @Test
+    void findPatientIds_findsOwnerByTypeAndNormalizedValue() {
+        Patient patient = createPatient("Lookup", "0400000101");
+        patientService.addIdentifier(patient.getId(), identifier(IdentifierType.MRN, "MRN-LOOKUP-1"));
+
+        assertThat(identifierLookupService.findPatientIds(IdentifierType.MRN, "MRN-LOOKUP-1"))
+                .containsExactly(patient.getId());
+        assertThat(identifierLookupService.findPatientIds(IdentifierType.PHONE, "0400 000 101"))
+                .containsExactly(patient.getId());
+        assertThat(identifierLookupService.findPatientIds(IdentifierType.NATIONAL_ID, "MRN-LOOKUP-1")).isEmpty();
+    }
+
+    @Test
+    void findPatientIds_batchKeepsRequestOrder() {
+        Patient first = createPatient("BatchOne", "0400000102");
+        Patient second = createPatient("BatchTwo", "0400000103");
+        patientService.addIdentifier(first.getId(), identifier(IdentifierType.MRN, "MRN-BATCH-1"));
+
+        List<IdentifierLookupDTO> results = identifierLookupService.findPatientIds(List.of(
+                identifier(IdentifierType.PHONE, "0400000103"),
+                identifier(IdentifierType.MRN, "MRN-UNKNOWN"),
+                identifier(IdentifierType.MRN, "MRN-BATCH-1")));
+
+        assertThat(results).extracting(IdentifierLookupDTO::getIdValue)
+                .containsExactly("0400000103", "MRN-UNKNOWN", "MRN-BATCH-1");
+        assertThat(results).extracting(IdentifierLookupDTO::getPatientIds)
+                .containsExactly(List.of(second.getId()), List.of(), List.of(first.getId()));
+    }
+
+    @Test
+    void findPatientIds_servesHitsFromCacheUntilPatientRemoved() {
+        Patient patient = createPatient("Cached", "0400000104");
+        patientService.addIdentifier(patient.getId(), identifier(IdentifierType.MRN, "MRN-CACHED-1"));
+        UUID patientId = patient.getId();
+
+        assertThat(identifierLookupService.findPatientIds(IdentifierType.MRN, "MRN-CACHED-1")).containsExactly(patientId);
+        jdbcTemplate.update("DELETE FROM patient_identifier WHERE id_value = 'MRN-CACHED-1'");
+        assertThat(identifierLookupService.findPatientIds(IdentifierType.MRN, "MRN-CACHED-1")).containsExactly(patientId);
+
+        patientService.deletePatient(patientId);
+
+        assertThat(identifierLookupService.findPatientIds(IdentifierType.MRN, "MRN-CACHED-1")).isEmpty();
+    }
+
+    @Test
+    void findPatientIds_evictsCachedOwnerOnIdentifierWrites() {
+        Patient patient = createPatient("Evicted", "0400000105");
+        NewPatientIdentifierDTO mrn = identifier(IdentifierType.MRN, "MRN-EVICT-1");
+        UUID identifierId = patientService.addIdentifier(patient.getId(), mrn).getId();
+
+        assertThat(identifierLookupService.findPatientIds(IdentifierType.MRN, "MRN-EVICT-1"))
+                .containsExactly(patient.getId());
+        assertThat(identifierLookupService.findPatientIds(IdentifierType.PHONE, "0400 000 105"))
+                .containsExactly(patient.getId());
+
+        patientService.deleteIdentifier(patient.getId(), identifierId);
+        PatientRequestDTO update = new PatientRequestDTO();
+        update.setFirstName("Evicted");
+        update.setPhoneNo("0400000106");
+        patientService.updatePatient(patient.getId(), update);
+
+        assertThat(identifierLookupService.findPatientIds(IdentifierType.MRN, "MRN-EVICT-1")).isEmpty();
+        assertThat(identifierLookupService.findPatientIds(IdentifierType.PHONE, "0400000105")).isEmpty();
+        assertThat(identifierLookupService.findPatientIds(IdentifierType.PHONE, "+61400000106"))
+                .containsExactly(patient.getId());
+    }
+
+    @Test
+    void findPatientIds_seesSecondOwnerOfCachedValue() {
+        Patient first = createPatient("SharedOne", "0400000107");
+        assertThat(identifierLookupService.findPatientIds(IdentifierType.PHONE, "0400000107"))
+                .containsExactly(first.getId());
+
+        Patient second = createPatient("SharedTwo", "0400000107");
+
+        assertThat(identifierLookupService.findPatientIds(IdentifierType.PHONE, "0400000107"))
+                .containsExactlyInAnyOrder(first.getId(), second.getId());
+    }
+
+    private Patient createPatient(String firstName, String phoneNo) {
+        PatientRequestDTO dto = new PatientRequestDTO();
+        dto.setFirstName(firstName);
+        dto.setLastName("Identifier");
+        dto.setPhoneNo(phoneNo);
+        return patientService.createPatient(dto);
+    }
+
+    private static NewPatientIdentifierDTO identifier(IdentifierType idType, String idValue) {
+        NewPatientIdentifierDTO dto = new NewPatientIdentifierDTO();
+        dto.setIdType(idType);
+        dto.setIdValue(idValue);
+        return dto;
+    }
+}
@@ -0,0 +1,104 @@
+package xs.test2.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.server.ResponseStatusException;
+import org.testcontainers.containers.PostgreSQLContainer;
+import xs.test2.dto.PatientBatchMatchDTO;
+import xs.test2.dto.PatientMatchDTO;
+import xs.test2.dto.PatientRequestDTO;
+import xs.test2.entity.Patient;
+import xs.test2.shared.MatchScore;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = {
+        "test2.match-pipeline.enabled=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class PatientBatchMatchServiceIntegrationTest {
+
+    static PostgreSQLContainer<?> postgresContainer = new PostgreSQLContainer<>("postgres:18.2")
+            .withDatabaseName("testdb");
+
+    @Autowired
+    private PatientBatchMatchService patientBatchMatchService;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeAll
+    static void beforeAll() {
+        postgresContainer.start();
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgresContainer::getJdbcUrl);
+        registry.add("spring.datasource.username", postgresContainer::getUsername);
+        registry.add("spring.datasource.password", postgresContainer::getPassword);
+    }
+
+    @Test
+    void match_scoresEachRegistrationInOneStatement() {
+        Patient existing = patientService.createPatient(
+                registration("Batchy", "Match", LocalDate.of(1941, 4, 4), "batch.a@match.test", "0400007001"));
+        Patient similar = patientService.createPatient(
+                registration("Other", "Registrant", LocalDate.of(1941, 4, 5), "batch.b@match.test", "0400007002"));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<PatientBatchMatchDTO> results = patientBatchMatchService.match(List.of(
+                registration("Batchy", "Match", LocalDate.of(1941, 4, 4), "batch.a@match.test", "0400 007 001"),
+                registration("Other", "Registrant", LocalDate.of(1941, 4, 7), "batch.b@match.test", "0400007099"),
+                registration("Nobody", "New", LocalDate.of(1941, 4, 6), null, null)));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(results).extracting(PatientBatchMatchDTO::getIndex).containsExactly(0, 1, 2);
+        assertThat(results.get(0).getMatches())
+                .extracting(PatientMatchDTO::getCandidatePatientId, PatientMatchDTO::getScore)
+                .containsExactly(tuple(existing.getId(), MatchScore.AUTO_MATCH));
+        assertThat(results.get(1).getMatches())
+                .extracting(PatientMatchDTO::getCandidatePatientId, PatientMatchDTO::getScore)
+                .containsExactly(tuple(similar.getId(), MatchScore.REVIEW));
+        assertThat(results.get(2).getMatches()).isEmpty();
+    }
+
+    @Test
+    void match_rejectsOversizedBatch() {
+        List<PatientRequestDTO> registrations = Collections.nCopies(PatientBatchMatchService.MAX_BATCH_SIZE + 1,
+                registration("Too", "Many", null, null, null));
+
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> patientBatchMatchService.match(registrations));
+        assertThat(exception.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    private PatientRequestDTO registration(String firstName, String lastName, LocalDate dob, String email, String phoneNo) {
+        PatientRequestDTO dto = new PatientRequestDTO();
+        dto.setFirstName(firstName);
+        dto.setLastName(lastName);
+        dto.setDob(dob);
+        dto.setEmail(email);
+        dto.setPhoneNo(phoneNo);
+        return dto;
+    }
+}
@@ -0,0 +1,98 @@
+package xs.test2.service;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import xs.test2.dto.CursorSliceDTO;
+import xs.test2.dto.PatientRequestDTO;
+import xs.test2.entity.Patient;
+import xs.test2.service.PatientChangeFeedService.PatientChange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest(properties = "test2.match-pipeline.enabled=false")
+class PatientChangeFeedServiceIntegrationTest {
+
+    static PostgreSQLContainer<?> postgresContainer = new PostgreSQLContainer<>("postgres:18.2")
+            .withDatabaseName("testdb");
+
+    @Autowired
+    private PatientChangeFeedService patientChangeFeedService;
+
+    @Autowired
+    private PatientService patientService;
+
+    @BeforeAll
+    static void beforeAll() {
+        postgresContainer.start();
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgresContainer::getJdbcUrl);
+        registry.add("spring.datasource.username", postgresContainer::getUsername);
+        registry.add("spring.datasource.password", postgresContainer::getPassword);
+    }
+
+    @Test
+    void getChanges_returnsWritesAndDeletesAfterToken() {
+        String token = drain(null);
+        Patient first = createNamed("FeedFirst");
+        Patient second = createNamed("FeedSecond");
+
+        CursorSliceDTO<PatientChange> created = patientChangeFeedService.getChanges(token, 100);
+
+        assertThat(created.content()).extracting(PatientChange::patientId, PatientChange::deleted)
+                .containsExactly(tuple(first.getId(), false), tuple(second.getId(), false));
+        assertThat(created.content().getFirst().patient().getIdentifiers()).isEmpty();
+        assertThat(created.hasNext()).isFalse();
+
+        PatientRequestDTO update = new PatientRequestDTO();
+        update.setFirstName("FeedFirstRenamed");
+        patientService.updatePatient(first.getId(), update);
+        patientService.deletePatient(second.getId());
+
+        CursorSliceDTO<PatientChange> changed = patientChangeFeedService.getChanges(created.nextCursor(), 100);
+
+        assertThat(changed.content()).extracting(PatientChange::patientId, PatientChange::deleted)
+                .containsExactly(tuple(first.getId(), false), tuple(second.getId(), true));
+        assertThat(changed.content().getFirst().patient().getFirstName()).isEqualTo("FeedFirstRenamed");
+        assertThat(patientChangeFeedService.getChanges(changed.nextCursor(), 100).content()).isEmpty();
+    }
+
+    @Test
+    void getChanges_pagesWithContinuationToken() {
+        String token = drain(null);
+        Patient first = createNamed("FeedPageOne");
+        Patient second = createNamed("FeedPageTwo");
+
+        CursorSliceDTO<PatientChange> page1 = patientChangeFeedService.getChanges(token, 1);
+        CursorSliceDTO<PatientChange> page2 = patientChangeFeedService.getChanges(page1.nextCursor(), 1);
+
+        assertThat(page1.hasNext()).isTrue();
+        assertThat(page1.content()).extracting(PatientChange::patientId).containsExactly(first.getId());
+        assertThat(page2.hasNext()).isFalse();
+        assertThat(page2.content()).extracting(PatientChange::patientId).containsExactly(second.getId());
+    }
+
+    private String drain(String token) {
+        CursorSliceDTO<PatientChange> page;
+        do {
+            page = patientChangeFeedService.getChanges(token, PatientChangeFeedService.MAX_PAGE_SIZE);
+            token = page.nextCursor();
+        } while (page.hasNext());
+        return token;
+    }
+
+    private Patient createNamed(String firstName) {
+        PatientRequestDTO dto = new PatientRequestDTO();
+        dto.setFirstName(firstName);
+        dto.setLastName("Feed");
+        return patientService.createPatient(dto);
+    }
+}
@@ -0,0 +1,123 @@
+package xs.test2.service;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import xs.test2.entity.PatientDedupeJob;
+import xs.test2.entity.Patient;
+import xs.test2.repository.PatientDedupeJobRepository;
+import xs.test2.repository.PatientRepository;
+import xs.test2.shared.DedupeJobStatus;
+import xs.test2.shared.PatientStatus;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {"test2.match-pipeline.enabled=false", "test2.dedupe.chunk-blocks=1"})
+class PatientDedupeServiceIntegrationTest {
+
+    static PostgreSQLContainer<?> postgresContainer = new PostgreSQLContainer<>("postgres:18.2")
+            .withDatabaseName("testdb");
+
+    @Autowired
+    private PatientDedupeService patientDedupeService;
+
+    @Autowired
+    private PatientDedupeJobRepository jobRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void beforeAll() {
+        postgresContainer.start();
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgresContainer::getJdbcUrl);
+        registry.add("spring.datasource.username", postgresContainer::getUsername);
+        registry.add("spring.datasource.password", postgresContainer::getPassword);
+    }
+
+    @Test
+    void run_writesEachScoredPairOnceInBothDirections() {
+        LocalDate dob = LocalDate.of(1901, 1, 1);
+        Patient a = savePatient("Dedupe", "Alpha", dob, "alpha@dedupe.test", "+61400000001");
+        Patient b = savePatient("Dedupe", "Alpha", dob, "alpha@dedupe.test", "+61400000002");
+        Patient c = savePatient("Other", "Person", dob, "other@dedupe.test", "+61400000003");
+
+        PatientDedupeJob job = newJob(null);
+        patientDedupeService.run(job.getId());
+
+        PatientDedupeJob finished = jobRepository.findById(job.getId()).orElseThrow();
+        assertThat(finished.getStatus()).isEqualTo(DedupeJobStatus.COMPLETED);
+        assertThat(finished.getPairsWritten()).isEqualTo(1);
+        assertThat(finished.getBlocksProcessed()).isEqualTo(finished.getBlocksTotal());
+        assertThat(finished.getLastBlockKey()).isNotNull();
+
+        assertThat(candidateScore(a.getId(), b.getId())).isEqualTo("AUTO_MATCH");
+        assertThat(candidateScore(b.getId(), a.getId())).isEqualTo("AUTO_MATCH");
+        assertThat(countCandidates(c.getId())).isZero();
+    }
+
+    @Test
+    void run_resumesAfterCheckpoint() {
+        LocalDate dob = LocalDate.of(1902, 2, 2);
+        Patient a = savePatient("Resume", "Beta", dob, "beta1@dedupe.test", "+61400000011");
+        Patient b = savePatient("Resume", "Beta", dob, "beta2@dedupe.test", "+61400000012");
+
+        PatientDedupeJob job = newJob("\uffff");
+        patientDedupeService.run(job.getId());
+
+        PatientDedupeJob finished = jobRepository.findById(job.getId()).orElseThrow();
+        assertThat(finished.getStatus()).isEqualTo(DedupeJobStatus.COMPLETED);
+        assertThat(finished.getPairsWritten()).isZero();
+        assertThat(countCandidates(a.getId())).isZero();
+
+        patientRepository.deleteAllById(List.of(a.getId(), b.getId()));
+    }
+
+    private Patient savePatient(String firstName, String lastName, LocalDate dob, String email, String phoneNo) {
+        Patient patient = new Patient();
+        patient.setFirstName(firstName);
+        patient.setLastName(lastName);
+        patient.setDob(dob);
+        patient.setEmail(email);
+        patient.setPhoneNo(phoneNo);
+        patient.setStatus(PatientStatus.ACTIVE);
+        return patientRepository.save(patient);
+    }
+
+    private PatientDedupeJob newJob(String lastBlockKey) {
+        PatientDedupeJob job = new PatientDedupeJob();
+        job.setStatus(DedupeJobStatus.RUNNING);
+        job.setStartedAt(Instant.now());
+        job.setLastBlockKey(lastBlockKey);
+        return jobRepository.save(job);
+    }
+
+    private String candidateScore(UUID patientId, UUID candidateId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT score FROM patient_match_candidate WHERE patient_id = ? AND candidate_patient_id = ?",
+                String.class, patientId, candidateId);
+    }
+
+    private int countCandidates(UUID patientId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM patient_match_candidate WHERE patient_id = ? OR candidate_patient_id = ?",
+                Integer.class, patientId, patientId);
+    }
+}
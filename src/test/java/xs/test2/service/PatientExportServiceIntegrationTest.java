@@ -0,0 +1,120 @@
+package xs.test2.service;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+import xs.test2.dto.PatientRequestDTO;
+import xs.test2.entity.AustralianAddress;
+import xs.test2.entity.Patient;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {"test2.match-pipeline.enabled=false", "test2.export.fetch-size=1"})
+class PatientExportServiceIntegrationTest {
+
+    static PostgreSQLContainer<?> postgresContainer = new PostgreSQLContainer<>("postgres:18.2")
+            .withDatabaseName("testdb");
+
+    @Autowired
+    private PatientExportService patientExportService;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void beforeAll() {
+        postgresContainer.start();
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgresContainer::getJdbcUrl);
+        registry.add("spring.datasource.username", postgresContainer::getUsername);
+        registry.add("spring.datasource.password", postgresContainer::getPassword);
+    }
+
+    @Test
+    void exportNdjson_writesOneLinePerPatientWithIdentifiersAndAddress() throws Exception {
+        AustralianAddress address = new AustralianAddress();
+        address.setAddress("1 Export St");
+        address.setState("NSW");
+        PatientRequestDTO dto = new PatientRequestDTO();
+        dto.setFirstName("Export");
+        dto.setLastName("Full");
+        dto.setPhoneNo("0400000201");
+        dto.setEmail("export.full@test.com");
+        dto.setAustralianAddress(address);
+        Patient patient = patientService.createPatient(dto);
+
+        List<JsonNode> lines = export(null);
+
+        JsonNode exported = lines.stream()
+                .filter(line -> patient.getId().toString().equals(line.get("id").asString()))
+                .findFirst()
+                .orElseThrow();
+        assertThat(exported.get("firstName").asString()).isEqualTo("Export");
+        assertThat(exported.get("australianAddress").get("address").asString()).isEqualTo("1 Export St");
+        assertThat(exported.get("identifiers")).hasSize(2);
+        assertThat(exported.get("updatedAt").isNull()).isFalse();
+    }
+
+    @Test
+    void exportNdjson_withModifiedSince_skipsOlderPatients() throws Exception {
+        Patient older = createNamed("ExportOlder");
+        Instant cutoff = Instant.now();
+        Thread.sleep(10);
+        Patient newer = createNamed("ExportNewer");
+
+        List<String> ids = export(cutoff).stream().map(line -> line.get("id").asString()).toList();
+
+        assertThat(ids).contains(newer.getId().toString()).doesNotContain(older.getId().toString());
+    }
+
+    @Test
+    void exportNdjson_withModifiedSince_includesBackfilledPatients() throws Exception {
+        Patient legacy = createNamed("ExportLegacy");
+        jdbcTemplate.update("UPDATE patient SET updated_at = NULL WHERE id = ?", legacy.getId());
+        Instant cutoff = Instant.now();
+        Thread.sleep(10);
+
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(jdbcTemplate.getDataSource());
+
+        List<String> ids = export(cutoff).stream().map(line -> line.get("id").asString()).toList();
+        assertThat(ids).contains(legacy.getId().toString());
+    }
+
+    private List<JsonNode> export(Instant modifiedSince) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        patientExportService.exportNdjson(modifiedSince, output);
+        return output.toString(StandardCharsets.UTF_8).lines()
+                .map(jsonMapper::readTree)
+                .toList();
+    }
+
+    private Patient createNamed(String firstName) {
+        PatientRequestDTO dto = new PatientRequestDTO();
+        dto.setFirstName(firstName);
+        dto.setLastName("Export");
+        return patientService.createPatient(dto);
+    }
+}
@@ -0,0 +1,158 @@
+package xs.test2.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.testcontainers.containers.PostgreSQLContainer;
+import xs.test2.dto.PatientImportErrorDTO;
+import xs.test2.dto.PatientImportResultDTO;
+import xs.test2.dto.PatientRequestDTO;
+import xs.test2.entity.Patient;
+import xs.test2.repository.PatientRepository;
+import xs.test2.shared.IdentifierType;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "test2.import.chunk-size=2")
+class PatientImportServiceIntegrationTest {
+
+    static PostgreSQLContainer<?> postgresContainer = new PostgreSQLContainer<>("postgres:18.2")
+            .withDatabaseName("testdb");
+
+    @Autowired
+    private PatientImportService patientImportService;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private IdentifierLookupService identifierLookupService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeAll
+    static void beforeAll() {
+        postgresContainer.start();
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgresContainer::getJdbcUrl);
+        registry.add("spring.datasource.username", postgresContainer::getUsername);
+        registry.add("spring.datasource.password", postgresContainer::getPassword);
+    }
+
+    @Test
+    void importNdjson_importsValidRowsAndReportsInvalidOnes() throws Exception {
+        String tooLong = "x".repeat(300);
+        String body = """
+                {"firstName":"Ndjson","lastName":"One","dob":"1990-01-15","phoneNo":"0412000001","email":"one@import.test"}
+                {"firstName":"Ndjson","lastName":"Two"
+                {"firstName":"","lastName":"Three"}
+
+                {"firstName":"%s","lastName":"Four"}
+                {"firstName":"Ndjson","lastName":"Five","gender":"FEMALE"}
+                null
+                """.formatted(tooLong);
+
+        PatientImportResultDTO result = patientImportService.importNdjson(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getFailed()).isEqualTo(4);
+        assertThat(result.getErrors()).extracting(PatientImportErrorDTO::getLine).containsExactly(2L, 3L, 5L, 7L);
+
+        Patient one = patientRepository.findAll().stream()
+                .filter(p -> "One".equals(p.getLastName()))
+                .findFirst()
+                .orElseThrow();
+        assertThat(one.getPhoneNo()).isEqualTo("+61412000001");
+        assertThat(patientService.getIdentifiers(one.getId()))
+                .extracting(i -> i.getIdType())
+                .containsExactlyInAnyOrder(IdentifierType.PHONE, IdentifierType.EMAIL);
+    }
+
+    @Test
+    void importCsv_mapsColumnsAndReportsBadRows() throws Exception {
+        String body = """
+                firstName,lastName,dob,gender,phoneNo,email,address,suburb,state,postcode
+                Csv,One,1980-02-03,male,0412 000 002,csv.one@import.test,"1 Main St, Unit 2",Sydney,NSW,2000
+                Csv,Two,not-a-date,,,,,,,
+                Csv,Three,,,,,,,,
+                """;
+
+        PatientImportResultDTO result = patientImportService.importCsv(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getFailed()).isEqualTo(1);
+        assertThat(result.getErrors()).extracting(PatientImportErrorDTO::getLine).containsExactly(3L);
+
+        List<Patient> imported = patientRepository.findAll().stream()
+                .filter(p -> "Csv".equals(p.getFirstName()) && "One".equals(p.getLastName()))
+                .toList();
+        assertThat(imported).hasSize(1);
+        assertThat(imported.getFirst().getPhoneNo()).isEqualTo("+61412000002");
+        assertThat(imported.getFirst().getAustralianAddress().getAddress()).isEqualTo("1 Main St, Unit 2");
+    }
+
+    /**
+     * Binds an EntityManager to the thread the way open-in-view does for a request, so every
+     * chunk transaction joins it.
+     */
+    @Test
+    void importNdjson_clearsSharedPersistenceContextAfterEachChunk() throws Exception {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 7; i++) {
+            body.append("""
+                    {"firstName":"Bounded","lastName":"Row%d","phoneNo":"04120001%02d","email":"bounded%d@import.test"}
+                    """.formatted(i, i, i));
+        }
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(entityManager));
+        try {
+            PatientImportResultDTO result = patientImportService.importNdjson(
+                    new ByteArrayInputStream(body.toString().getBytes(StandardCharsets.UTF_8)));
+
+            assertThat(result.getImported()).isEqualTo(7);
+            assertThat(entityManager.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            entityManager.close();
+        }
+    }
+
+    @Test
+    void importNdjson_evictsCachedOwnersOfImportedIdentifiers() throws Exception {
+        PatientRequestDTO existing = new PatientRequestDTO();
+        existing.setFirstName("Cached");
+        existing.setLastName("Owner");
+        existing.setPhoneNo("0412000301");
+        Patient owner = patientService.createPatient(existing);
+        assertThat(identifierLookupService.findPatientIds(IdentifierType.PHONE, "0412000301"))
+                .containsExactly(owner.getId());
+
+        String body = """
+                {"firstName":"Imported","lastName":"Sharer","phoneNo":"0412000301"}
+                """;
+        patientImportService.importNdjson(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(identifierLookupService.findPatientIds(IdentifierType.PHONE, "0412000301")).hasSize(2);
+    }
+}
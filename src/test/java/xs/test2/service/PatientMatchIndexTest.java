@@ -0,0 +1,125 @@
+package xs.test2.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import xs.test2.event.PatientChangedEvent;
+import xs.test2.repository.PatientRepository;
+import xs.test2.shared.MatchCandidate;
+
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PatientMatchIndexTest {
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    private PatientMatchIndex index;
+
+    private MatchCandidate john;
+    private MatchCandidate jane;
+
+    @BeforeEach
+    void setUp() {
+        index = new PatientMatchIndex(patientRepository, true);
+        john = new MatchCandidate(UUID.randomUUID(), "John", "Smith", LocalDate.of(1990, 1, 1),
+                "john@test.com", "+61411111111");
+        jane = new MatchCandidate(UUID.randomUUID(), "Jane", "Doe", LocalDate.of(1985, 5, 15),
+                "jane@test.com", "+61422222222");
+    }
+
+    @Test
+    void warmUp_loadsAllPatientsAndEnablesIndex() {
+        when(patientRepository.streamMatchCandidates()).thenReturn(Stream.of(john, jane));
+
+        index.warmUp();
+
+        assertThat(index.isEnabled()).isTrue();
+        MatchCandidate probe = new MatchCandidate(UUID.randomUUID(), "John", "Smith", null, null, null);
+        assertThat(index.findCandidateIds(probe)).containsExactly(john.id());
+    }
+
+    @Test
+    void warmUp_whenDisabled_doesNotLoad() {
+        index = new PatientMatchIndex(patientRepository, false);
+
+        index.warmUp();
+
+        assertThat(index.isEnabled()).isFalse();
+        verifyNoInteractions(patientRepository);
+    }
+
+    @Test
+    void findCandidateIds_matchesAnyBlockingKeyAndExcludesProbe() {
+        index.put(john);
+        index.put(jane);
+
+        MatchCandidate probe = new MatchCandidate(UUID.randomUUID(), "Bob", "Brown", LocalDate.of(1985, 5, 15),
+                "john@test.com", "+61433333333");
+
+        assertThat(index.findCandidateIds(probe)).containsExactlyInAnyOrder(john.id(), jane.id());
+        assertThat(index.findCandidateIds(john)).isEmpty();
+    }
+
+    @Test
+    void findCandidateIds_matchesSoundAlikeName() {
+        index.put(john);
+
+        MatchCandidate probe = new MatchCandidate(UUID.randomUUID(), "JON ", "smyth", null, null, null);
+
+        assertThat(index.findCandidateIds(probe)).containsExactly(john.id());
+    }
+
+    @Test
+    void findCandidateIds_requiresBothNamesForNameKey() {
+        index.put(john);
+
+        MatchCandidate probe = new MatchCandidate(UUID.randomUUID(), "John", null, null, null, null);
+
+        assertThat(index.findCandidateIds(probe)).isEmpty();
+    }
+
+    @Test
+    void onPatientChanged_replacesOldKeys() {
+        index.put(john);
+        MatchCandidate updated = new MatchCandidate(john.id(), "John", "Smith", LocalDate.of(1990, 1, 1),
+                "john.smith@test.com", "+61411111111");
+
+        index.onPatientChanged(new PatientChangedEvent(john.id(), updated));
+
+        MatchCandidate oldEmailProbe = new MatchCandidate(UUID.randomUUID(), null, null, null, "john@test.com", null);
+        MatchCandidate newEmailProbe = new MatchCandidate(UUID.randomUUID(), null, null, null, "john.smith@test.com", null);
+        assertThat(index.findCandidateIds(oldEmailProbe)).isEmpty();
+        assertThat(index.findCandidateIds(newEmailProbe)).containsExactly(john.id());
+    }
+
+    @Test
+    void onPatientChanged_whenDeleted_removesPatient() {
+        index.put(john);
+
+        index.onPatientChanged(new PatientChangedEvent(john.id(), null));
+
+        MatchCandidate probe = new MatchCandidate(UUID.randomUUID(), "John", "Smith", LocalDate.of(1990, 1, 1),
+                "john@test.com", "+61411111111");
+        assertThat(index.findCandidateIds(probe)).isEmpty();
+    }
+
+    @Test
+    void warmUp_skipsPatientsChangedWhileLoading() {
+        index.onPatientChanged(new PatientChangedEvent(john.id(), null));
+        when(patientRepository.streamMatchCandidates()).thenReturn(Stream.of(john, jane));
+
+        index.warmUp();
+
+        MatchCandidate probe = new MatchCandidate(UUID.randomUUID(), "John", "Smith", null, null, null);
+        assertThat(index.findCandidateIds(probe)).isEmpty();
+    }
+}
@@ -0,0 +1,198 @@
+package xs.test2.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import xs.test2.entity.Patient;
+import xs.test2.repository.PatientMatchCandidateRepository;
+import xs.test2.repository.PatientRepository;
+import xs.test2.shared.MatchScore;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PatientMatchPipelineTest {
+
+    @Mock
+    private PatientService patientService;
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @Mock
+    private PatientMatchCandidateRepository matchCandidateRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private PatientMatchPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        pipeline = newPipeline(4, 100);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        pipeline.shutdown();
+    }
+
+    @Test
+    void match_persistsAutoMatchAndReviewCandidatesOnly() {
+        UUID patientId = UUID.randomUUID();
+        UUID autoMatchId = UUID.randomUUID();
+        UUID reviewId = UUID.randomUUID();
+        Patient patient = new Patient();
+        patient.setId(patientId);
+        when(patientRepository.findById(patientId)).thenReturn(Optional.of(patient));
+        when(patientService.autoMatchPatient(patient)).thenReturn(Map.of(
+                autoMatchId, MatchScore.AUTO_MATCH,
+                reviewId, MatchScore.REVIEW,
+                UUID.randomUUID(), MatchScore.NO_MATCH));
+
+        pipeline.match(patientId);
+
+        verify(matchCandidateRepository).deleteInvolvingExcept(patientId, Set.of(autoMatchId, reviewId));
+        verify(matchCandidateRepository).upsert(eq(patientId), eq(autoMatchId), eq("AUTO_MATCH"), any());
+        verify(matchCandidateRepository).upsert(eq(autoMatchId), eq(patientId), eq("AUTO_MATCH"), any());
+        verify(matchCandidateRepository).upsert(eq(patientId), eq(reviewId), eq("REVIEW"), any());
+        verify(matchCandidateRepository).upsert(eq(reviewId), eq(patientId), eq("REVIEW"), any());
+        verifyNoMoreInteractions(matchCandidateRepository);
+    }
+
+    @Test
+    void match_withoutMatches_removesCandidatesInvolvingPatient() {
+        UUID patientId = UUID.randomUUID();
+        Patient patient = new Patient();
+        patient.setId(patientId);
+        when(patientRepository.findById(patientId)).thenReturn(Optional.of(patient));
+        when(patientService.autoMatchPatient(patient)).thenReturn(Map.of(UUID.randomUUID(), MatchScore.NO_MATCH));
+
+        pipeline.match(patientId);
+
+        verify(matchCandidateRepository).deleteInvolving(patientId);
+        verifyNoMoreInteractions(matchCandidateRepository);
+    }
+
+    @Test
+    void match_whenPatientDeleted_removesCandidatesInvolvingPatient() {
+        UUID patientId = UUID.randomUUID();
+        when(patientRepository.findById(patientId)).thenReturn(Optional.empty());
+
+        pipeline.match(patientId);
+
+        verify(matchCandidateRepository).deleteInvolving(patientId);
+        verifyNoInteractions(patientService);
+    }
+
+    @Test
+    void submit_whenQueueFull_defersAndCounts() throws InterruptedException {
+        pipeline.shutdown();
+        meterRegistry = new SimpleMeterRegistry();
+        pipeline = newPipeline(1, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(patientRepository.findById(any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return Optional.empty();
+        });
+
+        UUID running = UUID.randomUUID();
+        UUID queued = UUID.randomUUID();
+        assertThat(pipeline.submit(running)).isTrue();
+        started.await();
+        assertThat(pipeline.submit(queued)).isTrue();
+        assertThat(pipeline.submit(queued)).isTrue();
+        assertThat(pipeline.submit(UUID.randomUUID())).isFalse();
+
+        assertThat(meterRegistry.get("patient.match.queue.depth").gauge().value()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("patient.match.rejected").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("patient.match.deferred").gauge().value()).isEqualTo(1.0);
+
+        release.countDown();
+    }
+
+    @Test
+    void submit_whenQueueOverflows_eventuallyMatchesEveryPatient() throws InterruptedException {
+        pipeline.shutdown();
+        meterRegistry = new SimpleMeterRegistry();
+        pipeline = newPipeline(1, 2);
+        CountDownLatch release = new CountDownLatch(1);
+        Set<UUID> matched = ConcurrentHashMap.newKeySet();
+        when(patientRepository.findById(any())).thenAnswer(invocation -> {
+            release.await();
+            matched.add(invocation.getArgument(0));
+            return Optional.empty();
+        });
+
+        List<UUID> patientIds = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            UUID patientId = UUID.randomUUID();
+            patientIds.add(patientId);
+            pipeline.submit(patientId);
+        }
+        assertThat(meterRegistry.get("patient.match.rejected").counter().count()).isGreaterThan(0.0);
+        release.countDown();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (matched.size() < patientIds.size() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(matched).containsExactlyInAnyOrderElementsOf(patientIds);
+        assertThat(meterRegistry.get("patient.match.deferred").gauge().value()).isZero();
+    }
+
+    @Test
+    void submit_whileRunning_rerunsOnceOnTheSameWorker() throws InterruptedException {
+        UUID patientId = UUID.randomUUID();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        when(patientRepository.findById(patientId)).thenAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            started.countDown();
+            release.await();
+            running.decrementAndGet();
+            finished.countDown();
+            return Optional.empty();
+        });
+
+        assertThat(pipeline.submit(patientId)).isTrue();
+        started.await();
+        assertThat(pipeline.submit(patientId)).isTrue();
+        assertThat(pipeline.submit(patientId)).isTrue();
+        release.countDown();
+
+        assertThat(finished.await(5, TimeUnit.SECONDS)).isTrue();
+        pipeline.shutdown();
+        verify(patientRepository, times(2)).findById(patientId);
+        assertThat(maxRunning.get()).isEqualTo(1);
+    }
+
+    private PatientMatchPipeline newPipeline(int workers, int queueCapacity) {
+        return new PatientMatchPipeline(patientService, patientRepository, matchCandidateRepository,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), meterRegistry,
+                true, workers, queueCapacity, Duration.ofMillis(20));
+    }
+}
@@ -0,0 +1,148 @@
+package xs.test2.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.mock.env.MockEnvironment;
+import xs.test2.shared.MatchCandidate;
+import xs.test2.shared.MatchScore;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PatientMatchScorerTest {
+
+    private static final MatchCandidate PROBE = new MatchCandidate(UUID.randomUUID(), "John", "Smith",
+            LocalDate.of(1990, 1, 1), "john@example.com", "+61412345678");
+
+    private final PatientMatchScorer scorer = new PatientMatchScorer();
+
+    @ParameterizedTest
+    @CsvSource({
+        "true, true, true, true, AUTO_MATCH",
+        "true, true, true, false, AUTO_MATCH",
+        "true, true, false, true, AUTO_MATCH",
+        "true, true, false, false, REVIEW",
+        "true, false, true, true, REVIEW",
+        "false, true, true, true, REVIEW",
+        "true, false, true, false, REVIEW",
+        "false, false, true, true, REVIEW",
+        "false, true, false, true, REVIEW",
+        "true, false, false, false, NO_MATCH",
+        "false, true, false, false, NO_MATCH",
+        "false, false, false, true, NO_MATCH",
+        "false, false, false, false, NO_MATCH"
+    })
+    void score_withDefaultWeights_keepsThresholdRule(boolean name, boolean dob, boolean email, boolean phone,
+                                                     MatchScore expected) {
+        MatchCandidate candidate = new MatchCandidate(UUID.randomUUID(),
+                name ? "John" : "Peter", name ? "Smith" : "Jones",
+                dob ? PROBE.dob() : PROBE.dob().plusDays(1),
+                email ? PROBE.email() : "other@example.com",
+                phone ? PROBE.phoneNo() : "+61400000000");
+
+        assertEquals(expected, scorer.score(PROBE, candidate));
+    }
+
+    @Test
+    void score_soundAlikeNameCountsAsPartialAgreement() {
+        MatchCandidate allOtherFields = new MatchCandidate(UUID.randomUUID(), "Jon", "Smyth",
+                PROBE.dob(), PROBE.email(), PROBE.phoneNo());
+        MatchCandidate dobOnly = new MatchCandidate(UUID.randomUUID(), "Jon", "Smyth",
+                PROBE.dob(), "other@example.com", "+61400000000");
+
+        assertEquals(MatchScore.REVIEW, scorer.score(PROBE, allOtherFields));
+        assertEquals(MatchScore.REVIEW, scorer.score(PROBE, dobOnly));
+    }
+
+    @Test
+    void score_neverAutoMatchesWithoutExactName() {
+        MatchCandidate twin = new MatchCandidate(UUID.randomUUID(), "Joan", "Smith",
+                PROBE.dob(), PROBE.email(), PROBE.phoneNo());
+        PatientMatchScorer generous = new PatientMatchScorer(new MockEnvironment()
+                .withProperty("test2.match-score.name-similar.agree", "5"));
+
+        assertEquals(MatchScore.REVIEW, scorer.score(PROBE, twin));
+        assertEquals(MatchScore.REVIEW, generous.score(PROBE, twin));
+    }
+
+    @Test
+    void score_misspelledFirstNameWithSameSurnameCountsAsPartialAgreement() {
+        MatchCandidate probe = new MatchCandidate(UUID.randomUUID(), "Catherine", "Oakes",
+                PROBE.dob(), null, null);
+        MatchCandidate misspelled = new MatchCandidate(UUID.randomUUID(), "Catherime", "Oakes",
+                PROBE.dob(), null, null);
+        MatchCandidate otherSurname = new MatchCandidate(UUID.randomUUID(), "Catherime", "Oakley",
+                PROBE.dob(), null, null);
+
+        assertEquals(MatchScore.REVIEW, scorer.score(probe, misspelled));
+        assertEquals(MatchScore.NO_MATCH, scorer.score(probe, otherSurname));
+    }
+
+    @Test
+    void score_siblingNamesSharingSurnameAreNotSimilar() {
+        MatchCandidate oliver = new MatchCandidate(UUID.randomUUID(), "Oliver", "Brown",
+                PROBE.dob(), null, null);
+        MatchCandidate olivia = new MatchCandidate(UUID.randomUUID(), "Olivia", "Brown",
+                PROBE.dob(), null, null);
+
+        assertEquals(MatchScore.NO_MATCH, scorer.score(oliver, olivia));
+    }
+
+    @Test
+    void score_partialAgreementsDoNotCountTowardsAutoMatch() {
+        MatchCandidate emailTypo = new MatchCandidate(UUID.randomUUID(), "John", "Smith",
+                PROBE.dob(), "john@exmple.com", "+61400000000");
+        PatientMatchScorer generous = new PatientMatchScorer(new MockEnvironment()
+                .withProperty("test2.match-score.email-similar.agree", "5"));
+
+        assertEquals(MatchScore.REVIEW, generous.score(PROBE, emailTypo));
+    }
+
+    @Test
+    void score_emailWithinOneEditCountsAsPartialAgreement() {
+        MatchCandidate typo = new MatchCandidate(UUID.randomUUID(), "Peter", "Jones",
+                PROBE.dob(), "john@exmple.com", "+61400000000");
+        MatchCandidate twoEdits = new MatchCandidate(UUID.randomUUID(), "Peter", "Jones",
+                PROBE.dob(), "jonh@example.com", "+61400000000");
+
+        assertEquals(MatchScore.REVIEW, scorer.score(PROBE, typo));
+        assertEquals(MatchScore.NO_MATCH, scorer.score(PROBE, twoEdits));
+    }
+
+    @Test
+    void score_missingValuesDoNotAgree() {
+        MatchCandidate probe = new MatchCandidate(UUID.randomUUID(), "John", "Smith", PROBE.dob(), null, null);
+        MatchCandidate candidate = new MatchCandidate(UUID.randomUUID(), "John", "Smith", PROBE.dob(), null, null);
+
+        assertEquals(MatchScore.REVIEW, scorer.score(probe, candidate));
+        assertEquals(MatchScore.NO_MATCH, scorer.score(
+                new MatchCandidate(UUID.randomUUID(), null, null, PROBE.dob(), null, null),
+                new MatchCandidate(UUID.randomUUID(), null, null, PROBE.dob(), null, null)));
+    }
+
+    @Test
+    void score_usesConfiguredWeightsAndThresholds() {
+        PatientMatchScorer configured = new PatientMatchScorer(new MockEnvironment()
+                .withProperty("test2.match-score.dob.disagree", "-5")
+                .withProperty("test2.match-score.email.agree", "4")
+                .withProperty("test2.match-score.auto-match-threshold", "7"));
+        MatchCandidate dobDiffers = new MatchCandidate(UUID.randomUUID(), "John", "Smith",
+                PROBE.dob().plusDays(1), PROBE.email(), PROBE.phoneNo());
+        MatchCandidate nameAndEmail = new MatchCandidate(UUID.randomUUID(), "John", "Smith",
+                null, PROBE.email(), "+61400000000");
+
+        assertEquals(MatchScore.REVIEW, configured.score(PROBE, dobDiffers));
+        assertEquals(MatchScore.AUTO_MATCH, configured.score(PROBE, nameAndEmail));
+    }
+
+    @Test
+    void constructor_rejectsReviewThresholdAboveAutoMatch() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("test2.match-score.review-threshold", "9");
+
+        assertThrows(IllegalStateException.class, () -> new PatientMatchScorer(environment));
+    }
+}
@@ -1,23 +1,35 @@
 package xs.test2.service;
 
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 import org.testcontainers.containers.PostgreSQLContainer;
+import xs.test2.dto.CursorSliceDTO;
+import xs.test2.dto.PatientDTO;
 import xs.test2.dto.PatientRequestDTO;
 import xs.test2.dto.NewPatientIdentifierDTO;
 import xs.test2.entity.Patient;
 import xs.test2.entity.PatientIdentifier;
+import xs.test2.mapper.PatientMapper;
+import xs.test2.repository.PatientMergeHistoryRepository;
 import xs.test2.repository.PatientRepository;
 import org.springframework.http.HttpStatus;
 import xs.test2.shared.Gender;
 import xs.test2.shared.IdentifierType;
 import xs.test2.shared.MatchScore;
+import xs.test2.shared.PatientStatus;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -25,9 +37,10 @@ import java.util.Map;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
-@SpringBootTest
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 class PatientServiceIntegrationTest {
 
     static PostgreSQLContainer<?> postgresContainer = new PostgreSQLContainer<>("postgres:18.2")
@@ -39,6 +52,18 @@ class PatientServiceIntegrationTest {
     @Autowired
     private PatientRepository patientRepository;
 
+    @Autowired
+    private PatientMapper patientMapper;
+
+    @Autowired
+    private PatientMergeHistoryRepository patientMergeHistoryRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     @BeforeAll
     static void beforeAll() {
         postgresContainer.start();
@@ -162,4 +187,282 @@ class PatientServiceIntegrationTest {
         assertThat(results.get(w.getId())).isEqualTo(MatchScore.REVIEW);
         assertThat(results.get(z.getId())).isEqualTo(MatchScore.NO_MATCH);
     }
+
+    @Test
+    @Transactional
+    void autoMatchPatient_findsCandidatesWithDifferentlySpelledNames() {
+        PatientRequestDTO existing = new PatientRequestDTO();
+        existing.setFirstName("Kathryn");
+        existing.setLastName("Oakes");
+        Patient kathryn = patientService.createPatient(existing);
+
+        PatientRequestDTO probe = new PatientRequestDTO();
+        probe.setFirstName("CATHERINE ");
+        probe.setLastName("oakes");
+        Patient catherine = patientService.createPatient(probe);
+
+        assertThat(catherine.getNameKey()).isEqualTo("catherine oakes");
+        assertThat(catherine.getNamePhonetic()).isEqualTo(kathryn.getNamePhonetic());
+        assertThat(patientService.autoMatchPatient(catherine)).containsOnlyKeys(kathryn.getId());
+    }
+
+    @Test
+    @Transactional
+    void getPatients_withName_returnsCaseInsensitiveMatchesRankedBySimilarity() {
+        PatientRequestDTO partial = new PatientRequestDTO();
+        partial.setFirstName("Alice");
+        partial.setLastName("Trigramson");
+        Patient partialMatch = patientService.createPatient(partial);
+
+        PatientRequestDTO exact = new PatientRequestDTO();
+        exact.setFirstName("Trigram");
+        exact.setLastName("Jones");
+        Patient exactMatch = patientService.createPatient(exact);
+
+        PatientRequestDTO other = new PatientRequestDTO();
+        other.setFirstName("Bob");
+        other.setLastName("Other");
+        patientService.createPatient(other);
+
+        Page<Patient> result = patientService.getPatients(null, "TRIGRAM", PageRequest.of(0, 10));
+
+        assertThat(result.getTotalElements()).isEqualTo(2);
+        assertThat(result.getContent()).extracting(Patient::getId)
+                .containsExactly(exactMatch.getId(), partialMatch.getId());
+    }
+
+    @Test
+    @Transactional
+    void searchByName_countsAndRanksAtMostTheLimit() {
+        createNamed("Boundedsearch", "One");
+        createNamed("Boundedsearch", "Two");
+        createNamed("Boundedsearch", "Three");
+
+        Page<Patient> result = patientRepository.searchByName("boundedsearch", "%boundedsearch%", 2,
+                PageRequest.of(0, 10));
+        Page<Patient> prefixResult = patientRepository.searchByNamePrefix("bo%", 2, PageRequest.of(0, 10));
+
+        assertThat(result.getTotalElements()).isEqualTo(2);
+        assertThat(result.getContent()).hasSize(2);
+        assertThat(prefixResult.getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    @Transactional
+    void scrollPatients_walksAllPagesInStableOrder() {
+        Patient b = createNamed("Keysetpatient", "Bravo");
+        Patient none = createNamed("Keysetpatient", null);
+        Patient a1 = createNamed("Keysetpatient", "Alpha");
+        Patient a2 = createNamed("Keysetpatient", "Alpha");
+
+        CursorSliceDTO<Patient> first = patientService.scrollPatients("keysetpatient", null, 2);
+        CursorSliceDTO<Patient> second = patientService.scrollPatients("keysetpatient", first.nextCursor(), 2);
+
+        List<UUID> alphas = a1.getId().toString().compareTo(a2.getId().toString()) < 0
+                ? List.of(a1.getId(), a2.getId())
+                : List.of(a2.getId(), a1.getId());
+        assertThat(first.hasNext()).isTrue();
+        assertThat(first.content()).extracting(Patient::getId).containsExactly(none.getId(), alphas.get(0));
+        assertThat(second.hasNext()).isFalse();
+        assertThat(second.content()).extracting(Patient::getId).containsExactly(alphas.get(1), b.getId());
+    }
+
+    @Test
+    void getPatientWithIdentifiers_loadsFullPatientViewInOneStatement() {
+        PatientRequestDTO dto = new PatientRequestDTO();
+        dto.setFirstName("Statement");
+        dto.setLastName("Count");
+        dto.setPhoneNo("0400000005");
+        dto.setEmail("statement.count@test.com");
+        UUID patientId = patientService.createPatient(dto).getId();
+        entityManagerFactory.getCache().evict(Patient.class, patientId);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        PatientDTO result = transactionTemplate.execute(status ->
+                patientMapper.toDTO(patientService.getPatientWithIdentifiers(patientId)));
+
+        assertThat(result.getIdentifiers()).hasSize(2);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void getPatientWithIdentifiers_servesCachedPatientViewWithoutStatements() {
+        PatientRequestDTO dto = new PatientRequestDTO();
+        dto.setFirstName("Cached");
+        dto.setLastName("View");
+        dto.setPhoneNo("0400000007");
+        dto.setEmail("cached.view@test.com");
+        UUID patientId = patientService.createPatient(dto).getId();
+        entityManagerFactory.getCache().evict(Patient.class, patientId);
+        transactionTemplate.executeWithoutResult(status ->
+                patientMapper.toDTO(patientService.getPatientWithIdentifiers(patientId)));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        PatientDTO result = transactionTemplate.execute(status ->
+                patientMapper.toDTO(patientService.getPatientWithIdentifiers(patientId)));
+
+        assertThat(result.getIdentifiers()).hasSize(2);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getSecondLevelCacheHitCount()).isPositive();
+    }
+
+    @Test
+    void getPatientById_servesRepeatReadsFromSecondLevelCache() {
+        Patient patient = createNamed("Cached", "Patient");
+        entityManagerFactory.getCache().evict(Patient.class, patient.getId());
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        transactionTemplate.executeWithoutResult(status -> patientService.getPatientById(patient.getId()));
+        long statementsAfterMiss = statistics.getPrepareStatementCount();
+        transactionTemplate.executeWithoutResult(status -> patientService.getPatientById(patient.getId()));
+
+        assertThat(statementsAfterMiss).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(1);
+
+        PatientRequestDTO update = new PatientRequestDTO();
+        update.setFirstName("Renamed");
+        update.setLastName("Patient");
+        patientService.updatePatient(patient.getId(), update);
+
+        assertThat(patientService.getPatientById(patient.getId()).getFirstName()).isEqualTo("Renamed");
+    }
+
+    @Test
+    void updatePatient_replacesPhoneAndEmailIdentifiersAndKeepsOthers() {
+        PatientRequestDTO dto = new PatientRequestDTO();
+        dto.setFirstName("Sync");
+        dto.setLastName("Identifiers");
+        dto.setPhoneNo("0400000301");
+        dto.setEmail("sync.old@test.com");
+        Patient patient = patientService.createPatient(dto);
+        NewPatientIdentifierDTO mrn = new NewPatientIdentifierDTO();
+        mrn.setIdType(IdentifierType.MRN);
+        mrn.setIdValue("MRN-SYNC-1");
+        patientService.addIdentifier(patient.getId(), mrn);
+
+        dto.setPhoneNo("0400000302");
+        dto.setEmail("sync.new@test.com");
+        patientService.updatePatient(patient.getId(), dto);
+        dto.setEmail(null);
+        Patient updated = patientService.updatePatient(patient.getId(), dto);
+
+        assertThat(updated.getVersion()).isEqualTo(patient.getVersion() + 3);
+        assertThat(patientService.getIdentifiers(patient.getId()))
+                .extracting(PatientIdentifier::getIdType, PatientIdentifier::getIdValue)
+                .containsExactlyInAnyOrder(
+                        tuple(IdentifierType.PHONE, "+61400000302"),
+                        tuple(IdentifierType.MRN, "MRN-SYNC-1"));
+    }
+
+    @Test
+    void updatePatient_evictsOnlyTheUpdatedPatientsIdentifiersFromSecondLevelCache() {
+        Patient updated = createNamed("Evicted", "Identifiers");
+        Patient other = createNamed("Untouched", "Identifiers");
+        patientService.getIdentifiers(updated.getId());
+        patientService.getIdentifiers(other.getId());
+        Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+        String role = Patient.class.getName() + ".identifiers";
+        assertThat(cache.containsCollection(role, other.getId())).isTrue();
+
+        PatientRequestDTO dto = new PatientRequestDTO();
+        dto.setFirstName("Evicted");
+        dto.setLastName("Identifiers");
+        dto.setPhoneNo("0400000303");
+        patientService.updatePatient(updated.getId(), dto);
+
+        assertThat(cache.containsCollection(role, updated.getId())).isFalse();
+        assertThat(cache.containsCollection(role, other.getId())).isTrue();
+        assertThat(cache.containsEntity(Patient.class, other.getId())).isTrue();
+        assertThat(patientService.getIdentifiers(updated.getId()))
+                .extracting(PatientIdentifier::getIdValue)
+                .containsExactly("+61400000303");
+    }
+
+    @Test
+    void updatePatient_evictsReplacedIdentifierFromSecondLevelCache() {
+        PatientRequestDTO dto = new PatientRequestDTO();
+        dto.setFirstName("Replaced");
+        dto.setLastName("Identifier");
+        dto.setPhoneNo("0400000304");
+        Patient patient = patientService.createPatient(dto);
+        UUID oldPhoneId = patientService.getIdentifiers(patient.getId()).getFirst().getId();
+        Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+        assertThat(cache.containsEntity(PatientIdentifier.class, oldPhoneId)).isTrue();
+
+        dto.setPhoneNo("0400000305");
+        patientService.updatePatient(patient.getId(), dto);
+
+        assertThat(cache.containsEntity(PatientIdentifier.class, oldPhoneId)).isFalse();
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> patientService.deleteIdentifier(patient.getId(), oldPhoneId));
+        assertThat(exception.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void mergePatients_evictsOnlyTheMergedPatientsFromSecondLevelCache() {
+        Patient keep = createNamed("CacheMerge", "Keep");
+        Patient discard = createNamed("CacheMerge", "Discard");
+        Patient bystander = createNamed("CacheMerge", "Bystander");
+        for (Patient patient : List.of(keep, discard, bystander)) {
+            patientService.getIdentifiers(patient.getId());
+        }
+        Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+        String role = Patient.class.getName() + ".identifiers";
+
+        patientService.mergePatients(keep.getId(), discard.getId());
+
+        assertThat(cache.containsEntity(Patient.class, keep.getId())).isFalse();
+        assertThat(cache.containsEntity(Patient.class, discard.getId())).isFalse();
+        assertThat(cache.containsCollection(role, keep.getId())).isFalse();
+        assertThat(cache.containsCollection(role, discard.getId())).isFalse();
+        assertThat(cache.containsEntity(Patient.class, bystander.getId())).isTrue();
+        assertThat(cache.containsCollection(role, bystander.getId())).isTrue();
+        assertThat(patientService.getPatientById(discard.getId()).getStatus()).isEqualTo(PatientStatus.MERGED);
+    }
+
+    @Test
+    void mergePatients_movesIdentifiersAndDropsDuplicates() {
+        PatientRequestDTO keepDto = new PatientRequestDTO();
+        keepDto.setFirstName("Merge");
+        keepDto.setLastName("Keep");
+        keepDto.setPhoneNo("0400000006");
+        keepDto.setEmail("merge.keep@test.com");
+        Patient keep = patientService.createPatient(keepDto);
+
+        PatientRequestDTO discardDto = new PatientRequestDTO();
+        discardDto.setFirstName("Merge");
+        discardDto.setLastName("Discard");
+        discardDto.setPhoneNo("0400000006");
+        discardDto.setEmail("merge.discard@test.com");
+        Patient discard = patientService.createPatient(discardDto);
+
+        Patient merged = patientService.mergePatients(keep.getId(), discard.getId());
+
+        assertThat(merged.getIdentifiers())
+                .extracting(PatientIdentifier::getIdType, PatientIdentifier::getIdValue)
+                .containsExactlyInAnyOrder(
+                        tuple(IdentifierType.PHONE, "+61400000006"),
+                        tuple(IdentifierType.EMAIL, "merge.keep@test.com"),
+                        tuple(IdentifierType.EMAIL, "merge.discard@test.com"));
+        assertThat(patientService.getPatientById(discard.getId()).getStatus()).isEqualTo(PatientStatus.MERGED);
+        assertThat(patientService.getIdentifiers(discard.getId())).isEmpty();
+        assertThat(patientMergeHistoryRepository.count()).isPositive();
+
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> patientService.mergePatients(keep.getId(), discard.getId()));
+        assertThat(exception.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    private Patient createNamed(String firstName, String lastName) {
+        PatientRequestDTO dto = new PatientRequestDTO();
+        dto.setFirstName(firstName);
+        dto.setLastName(lastName);
+        return patientService.createPatient(dto);
+    }
 }
@@ -1,24 +1,36 @@
 package xs.test2.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.web.server.ResponseStatusException;
+import xs.test2.dto.CursorSliceDTO;
 import xs.test2.dto.NewPatientIdentifierDTO;
+import xs.test2.dto.PatientMergeRequestDTO;
 import xs.test2.dto.PatientRequestDTO;
 import xs.test2.entity.Patient;
 import xs.test2.entity.PatientIdentifier;
+import xs.test2.entity.PatientMergeHistory;
+import xs.test2.event.PatientChangedEvent;
 import xs.test2.mapper.PatientMapper;
+import xs.test2.repository.PatientIdentifierRepository;
+import xs.test2.repository.PatientMergeHistoryRepository;
 import xs.test2.repository.PatientRepository;
 import xs.test2.shared.Gender;
 import xs.test2.shared.IdentifierType;
+import xs.test2.shared.MatchCandidate;
 import xs.test2.shared.MatchScore;
 import xs.test2.shared.PatientStatus;
 
@@ -28,6 +40,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -40,12 +53,33 @@ class PatientServiceTest {
     @Mock
     private PatientRepository patientRepository;
 
+    @Mock
+    private PatientIdentifierRepository patientIdentifierRepository;
+
+    @Mock
+    private PatientMergeHistoryRepository patientMergeHistoryRepository;
+
     @Mock
     private PatientMapper patientMapper;
 
     @Mock
     private PhoneNumberService phoneNumberService;
 
+    @Mock
+    private PatientMatchIndex patientMatchIndex;
+
+    @Spy
+    private PatientMatchScorer patientMatchScorer = new PatientMatchScorer();
+
+    @Mock
+    private PatientCacheInspector patientCacheInspector;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private PatientService patientService;
 
@@ -88,6 +122,18 @@ class PatientServiceTest {
         verify(patientRepository).save(any(Patient.class));
     }
 
+    @Test
+    void createPatient_publishesPatientChangedEvent() {
+        when(patientMapper.toEntity(dto)).thenReturn(patient);
+        when(phoneNumberService.normalize("0412345678")).thenReturn("+61412345678");
+        when(patientRepository.save(any(Patient.class))).thenReturn(patient);
+
+        patientService.createPatient(dto);
+
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof PatientChangedEvent e
+                && e.patientId().equals(patient.getId()) && !e.deleted()));
+    }
+
     @Test
     void createPatient_withPhoneOnly_createsSuccessfully() {
         dto.setEmail(null);
@@ -152,6 +198,14 @@ class PatientServiceTest {
         assertThrows(ResponseStatusException.class, () -> patientService.getPatientById(id));
     }
 
+    @Test
+    void getPatientWithIdentifiers_whenNotExists_throwsException() {
+        UUID id = UUID.randomUUID();
+        when(patientRepository.findWithIdentifiersById(id)).thenReturn(Optional.empty());
+
+        assertThrows(ResponseStatusException.class, () -> patientService.getPatientWithIdentifiers(id));
+    }
+
     @Test
     void deletePatient_deletesSuccessfully() {
         UUID id = UUID.randomUUID();
@@ -160,6 +214,7 @@ class PatientServiceTest {
         patientService.deletePatient(id);
 
         verify(patientRepository).delete(patient);
+        verify(eventPublisher).publishEvent(new PatientChangedEvent(id, null));
     }
 
     @Test
@@ -177,7 +232,7 @@ class PatientServiceTest {
     void getPatients_withName_returnsMatchingPatients() {
         String name = "John";
         List<Patient> patients = List.of(patient);
-        when(patientRepository.findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(name, name, pageable))
+        when(patientRepository.searchByName("john", "%john%", PatientService.MAX_SEARCH_RESULTS, pageable))
                 .thenReturn(new PageImpl<>(patients, pageable, 1));
 
         Page<Patient> result = patientService.getPatients(null, name, pageable);
@@ -185,6 +240,26 @@ class PatientServiceTest {
         assertEquals(1, result.getTotalElements());
     }
 
+    @Test
+    void getPatients_withName_escapesLikeWildcards() {
+        when(patientRepository.searchByName("50%_a", "%50\\%\\_a%", PatientService.MAX_SEARCH_RESULTS, pageable))
+                .thenReturn(new PageImpl<>(List.of(), pageable, 0));
+
+        Page<Patient> result = patientService.getPatients(null, " 50%_A ", pageable);
+
+        assertEquals(0, result.getTotalElements());
+    }
+
+    @Test
+    void getPatients_withShortName_usesPrefixSearch() {
+        when(patientRepository.searchByNamePrefix("jo%", PatientService.MAX_SEARCH_RESULTS, pageable))
+                .thenReturn(new PageImpl<>(List.of(patient), pageable, 1));
+
+        Page<Patient> result = patientService.getPatients(null, "Jo", pageable);
+
+        assertEquals(1, result.getTotalElements());
+    }
+
     @Test
     void getPatients_withNoFilters_returnsAllPatients() {
         when(patientRepository.findAll(pageable)).thenReturn(new PageImpl<>(List.of(patient), pageable, 1));
@@ -194,6 +269,58 @@ class PatientServiceTest {
         assertEquals(1, result.getTotalElements());
     }
 
+    @Test
+    void scrollPatients_withoutCursor_startsFromFirstKeyAndReturnsNextCursor() {
+        Patient second = new Patient();
+        second.setId(UUID.randomUUID());
+        second.setFirstName("Zed");
+        second.setLastName(null);
+        Patient third = new Patient();
+        third.setId(UUID.randomUUID());
+        third.setFirstName("Zoe");
+
+        when(patientRepository.scrollAfter("", "", new UUID(0L, 0L), 3)).thenReturn(List.of(patient, second, third));
+
+        CursorSliceDTO<Patient> result = patientService.scrollPatients(null, null, 2);
+
+        assertEquals(List.of(patient, second), result.content());
+        assertTrue(result.hasNext());
+
+        when(patientRepository.scrollAfter("", "Zed", second.getId(), 3)).thenReturn(List.of(third));
+
+        CursorSliceDTO<Patient> next = patientService.scrollPatients(null, result.nextCursor(), 2);
+
+        assertEquals(List.of(third), next.content());
+        assertFalse(next.hasNext());
+        assertNull(next.nextCursor());
+    }
+
+    @Test
+    void scrollPatients_withName_usesContainsPattern() {
+        when(patientRepository.scrollByNameAfter("%jo%", "", "", new UUID(0L, 0L), 11)).thenReturn(List.of(patient));
+
+        CursorSliceDTO<Patient> result = patientService.scrollPatients("Jo", null, 10);
+
+        assertEquals(1, result.content().size());
+    }
+
+    @Test
+    void scrollPatients_withInvalidCursor_throwsBadRequest() {
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> patientService.scrollPatients(null, "not a cursor!", 10));
+
+        assertEquals(400, exception.getStatusCode().value());
+    }
+
+    @Test
+    void scrollPatients_withSizeAboveMax_throwsBadRequest() {
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> patientService.scrollPatients(null, null, PatientService.MAX_PAGE_SIZE + 1));
+
+        assertEquals(400, exception.getStatusCode().value());
+        verifyNoInteractions(patientRepository);
+    }
+
     @Test
     void getIdentifiers_returnsList() {
         UUID patientId = UUID.randomUUID();
@@ -203,7 +330,7 @@ class PatientServiceTest {
         identifier.setIdValue("+61412345678");
         patient.getIdentifiers().add(identifier);
 
-        when(patientRepository.findById(patientId)).thenReturn(Optional.of(patient));
+        when(patientRepository.findWithIdentifiersById(patientId)).thenReturn(Optional.of(patient));
 
         List<PatientIdentifier> result = patientService.getIdentifiers(patientId);
 
@@ -271,38 +398,27 @@ class PatientServiceTest {
     }
 
     @Test
-    void updatePatient_phoneChanged_updatesPhone() {
+    void updatePatient_phoneChanged_replacesPhoneIdentifier() {
         UUID id = UUID.randomUUID();
         dto.setPhoneNo("0499999999");
 
-        PatientIdentifier phoneId = new PatientIdentifier();
-        phoneId.setId(UUID.randomUUID());
-        phoneId.setIdType(IdentifierType.PHONE);
-        phoneId.setIdValue("+61412345678");
-        phoneId.setPatient(patient);
-        patient.getIdentifiers().add(phoneId);
-
         when(patientRepository.findById(id)).thenReturn(Optional.of(patient));
         when(phoneNumberService.normalize("0499999999")).thenReturn("+61499999999");
         when(patientRepository.save(any(Patient.class))).thenReturn(patient);
 
         Patient result = patientService.updatePatient(id, dto);
 
-        assertNotNull(result);
+        assertEquals("+61499999999", result.getPhoneNo());
+        verify(patientIdentifierRepository).deleteIdentifier(id, "PHONE", "+61412345678");
+        verify(patientIdentifierRepository).insertIdentifierIfAbsent(id, "PHONE", "+61499999999");
+        verifyNoMoreInteractions(patientIdentifierRepository);
     }
 
     @Test
-    void updatePatient_phoneUnchanged_doesNotUpdatePhone() {
+    void updatePatient_phoneAndEmailUnchanged_issuesNoIdentifierStatements() {
         UUID id = UUID.randomUUID();
         dto.setPhoneNo("0412345678");
 
-        PatientIdentifier phoneId = new PatientIdentifier();
-        phoneId.setId(UUID.randomUUID());
-        phoneId.setIdType(IdentifierType.PHONE);
-        phoneId.setIdValue("+61412345678");
-        phoneId.setPatient(patient);
-        patient.getIdentifiers().add(phoneId);
-
         when(patientRepository.findById(id)).thenReturn(Optional.of(patient));
         when(phoneNumberService.normalize("0412345678")).thenReturn("+61412345678");
         when(patientRepository.save(any(Patient.class))).thenReturn(patient);
@@ -310,6 +426,7 @@ class PatientServiceTest {
         patientService.updatePatient(id, dto);
 
         verify(phoneNumberService).normalize("0412345678");
+        verifyNoInteractions(patientIdentifierRepository);
     }
 
     @Test
@@ -317,19 +434,14 @@ class PatientServiceTest {
         UUID id = UUID.randomUUID();
         dto.setPhoneNo(null);
 
-        PatientIdentifier phoneId = new PatientIdentifier();
-        phoneId.setId(UUID.randomUUID());
-        phoneId.setIdType(IdentifierType.PHONE);
-        phoneId.setIdValue("+61412345678");
-        phoneId.setPatient(patient);
-        patient.getIdentifiers().add(phoneId);
-
         when(patientRepository.findById(id)).thenReturn(Optional.of(patient));
         when(patientRepository.save(any(Patient.class))).thenReturn(patient);
 
         patientService.updatePatient(id, dto);
 
         assertNull(patient.getPhoneNo());
+        verify(patientIdentifierRepository).deleteIdentifier(id, "PHONE", "+61412345678");
+        verify(patientIdentifierRepository, never()).insertIdentifierIfAbsent(any(), any(), any());
     }
 
     @Test
@@ -337,39 +449,47 @@ class PatientServiceTest {
         UUID id = UUID.randomUUID();
         dto.setPhoneNo("   ");
 
-        PatientIdentifier phoneId = new PatientIdentifier();
-        phoneId.setId(UUID.randomUUID());
-        phoneId.setIdType(IdentifierType.PHONE);
-        phoneId.setIdValue("+61412345678");
-        phoneId.setPatient(patient);
-        patient.getIdentifiers().add(phoneId);
-
         when(patientRepository.findById(id)).thenReturn(Optional.of(patient));
         when(patientRepository.save(any(Patient.class))).thenReturn(patient);
 
         patientService.updatePatient(id, dto);
 
         assertNull(patient.getPhoneNo());
+        verify(patientIdentifierRepository).deleteIdentifier(id, "PHONE", "+61412345678");
+        verify(patientIdentifierRepository, never()).insertIdentifierIfAbsent(any(), any(), any());
     }
 
     @Test
-    void updatePatient_emailChanged_updatesEmail() {
+    void updatePatient_phoneAdded_insertsWithoutDelete() {
         UUID id = UUID.randomUUID();
-        dto.setEmail("newemail@example.com");
+        patient.setPhoneNo(null);
+
+        when(patientRepository.findById(id)).thenReturn(Optional.of(patient));
+        when(phoneNumberService.normalize("0412345678")).thenReturn("+61412345678");
+        when(patientRepository.save(any(Patient.class))).thenReturn(patient);
 
-        PatientIdentifier emailId = new PatientIdentifier();
-        emailId.setId(UUID.randomUUID());
-        emailId.setIdType(IdentifierType.EMAIL);
-        emailId.setIdValue("john@example.com");
-        emailId.setPatient(patient);
-        patient.getIdentifiers().add(emailId);
+        patientService.updatePatient(id, dto);
+
+        verify(patientIdentifierRepository).insertIdentifierIfAbsent(id, "PHONE", "+61412345678");
+        verifyNoMoreInteractions(patientIdentifierRepository);
+    }
+
+    @Test
+    void updatePatient_emailChanged_replacesEmailIdentifier() {
+        UUID id = UUID.randomUUID();
+        dto.setPhoneNo("0412345678");
+        dto.setEmail("newemail@example.com");
 
         when(patientRepository.findById(id)).thenReturn(Optional.of(patient));
+        when(phoneNumberService.normalize("0412345678")).thenReturn("+61412345678");
         when(patientRepository.save(any(Patient.class))).thenReturn(patient);
 
         Patient result = patientService.updatePatient(id, dto);
 
-        assertNotNull(result);
+        assertEquals("newemail@example.com", result.getEmail());
+        verify(patientIdentifierRepository).deleteIdentifier(id, "EMAIL", "john@example.com");
+        verify(patientIdentifierRepository).insertIdentifierIfAbsent(id, "EMAIL", "newemail@example.com");
+        verifyNoMoreInteractions(patientIdentifierRepository);
     }
 
     @Test
@@ -377,19 +497,15 @@ class PatientServiceTest {
         UUID id = UUID.randomUUID();
         dto.setEmail(null);
 
-        PatientIdentifier emailId = new PatientIdentifier();
-        emailId.setId(UUID.randomUUID());
-        emailId.setIdType(IdentifierType.EMAIL);
-        emailId.setIdValue("john@example.com");
-        emailId.setPatient(patient);
-        patient.getIdentifiers().add(emailId);
-
         when(patientRepository.findById(id)).thenReturn(Optional.of(patient));
+        when(phoneNumberService.normalize("0412345678")).thenReturn("+61412345678");
         when(patientRepository.save(any(Patient.class))).thenReturn(patient);
 
         patientService.updatePatient(id, dto);
 
         assertNull(patient.getEmail());
+        verify(patientIdentifierRepository).deleteIdentifier(id, "EMAIL", "john@example.com");
+        verify(patientIdentifierRepository, never()).insertIdentifierIfAbsent(any(), any(), any());
     }
 
     @Test
@@ -397,19 +513,15 @@ class PatientServiceTest {
         UUID id = UUID.randomUUID();
         dto.setEmail("   ");
 
-        PatientIdentifier emailId = new PatientIdentifier();
-        emailId.setId(UUID.randomUUID());
-        emailId.setIdType(IdentifierType.EMAIL);
-        emailId.setIdValue("john@example.com");
-        emailId.setPatient(patient);
-        patient.getIdentifiers().add(emailId);
-
         when(patientRepository.findById(id)).thenReturn(Optional.of(patient));
+        when(phoneNumberService.normalize("0412345678")).thenReturn("+61412345678");
         when(patientRepository.save(any(Patient.class))).thenReturn(patient);
 
         patientService.updatePatient(id, dto);
 
         assertEquals("   ", patient.getEmail());
+        verify(patientIdentifierRepository).deleteIdentifier(id, "EMAIL", "john@example.com");
+        verify(patientIdentifierRepository, never()).insertIdentifierIfAbsent(any(), any(), any());
     }
 
     @Test
@@ -488,8 +600,8 @@ class PatientServiceTest {
         matchingPatient.setEmail("john@example.com");
         matchingPatient.setPhoneNo("+61412345678");
 
-        when(patientRepository.getMatchingPatients(any(), any(), any(), any(), any(), any()))
-                .thenReturn(List.of(matchingPatient));
+        when(patientRepository.findMatchCandidates(any()))
+                .thenReturn(List.of(MatchCandidate.of(matchingPatient)));
 
         Map<UUID, MatchScore> result = patientService.autoMatchPatient(patient);
 
@@ -506,8 +618,8 @@ class PatientServiceTest {
         matchingPatient.setEmail("john@example.com");
         matchingPatient.setPhoneNo("+61412345678");
 
-        when(patientRepository.getMatchingPatients(any(), any(), any(), any(), any(), any()))
-                .thenReturn(List.of(matchingPatient));
+        when(patientRepository.findMatchCandidates(any()))
+                .thenReturn(List.of(MatchCandidate.of(matchingPatient)));
 
         Map<UUID, MatchScore> result = patientService.autoMatchPatient(patient);
 
@@ -524,8 +636,8 @@ class PatientServiceTest {
         matchingPatient.setEmail("jane@example.com");
         matchingPatient.setPhoneNo("+61999999999");
 
-        when(patientRepository.getMatchingPatients(any(), any(), any(), any(), any(), any()))
-                .thenReturn(List.of(matchingPatient));
+        when(patientRepository.findMatchCandidates(any()))
+                .thenReturn(List.of(MatchCandidate.of(matchingPatient)));
 
         Map<UUID, MatchScore> result = patientService.autoMatchPatient(patient);
 
@@ -550,12 +662,137 @@ class PatientServiceTest {
         noMatchPatient.setEmail("jane@example.com");
         noMatchPatient.setPhoneNo("+61999999999");
 
-        when(patientRepository.getMatchingPatients(any(), any(), any(), any(), any(), any()))
-                .thenReturn(List.of(autoMatchPatient, noMatchPatient));
+        when(patientRepository.findMatchCandidates(any()))
+                .thenReturn(List.of(MatchCandidate.of(autoMatchPatient), MatchCandidate.of(noMatchPatient)));
 
         Map<UUID, MatchScore> result = patientService.autoMatchPatient(patient);
 
         assertEquals(MatchScore.AUTO_MATCH, result.get(autoMatchPatient.getId()));
         assertEquals(MatchScore.NO_MATCH, result.get(noMatchPatient.getId()));
+        assertEquals(1.0, meterRegistry.get("patient.match.score").tag("score", "AUTO_MATCH").counter().count());
+        assertEquals(1.0, meterRegistry.get("patient.match.score").tag("score", "NO_MATCH").counter().count());
+        assertEquals(0.0, meterRegistry.get("patient.match.score").tag("score", "REVIEW").counter().count());
+    }
+
+    @Test
+    void autoMatchPatient_whenIndexEnabled_loadsCandidatesById() {
+        Patient matchingPatient = new Patient();
+        matchingPatient.setId(UUID.randomUUID());
+        matchingPatient.setFirstName("John");
+        matchingPatient.setLastName("Doe");
+        matchingPatient.setDob(LocalDate.of(1990, 1, 1));
+        matchingPatient.setEmail("john@example.com");
+        matchingPatient.setPhoneNo("+61412345678");
+
+        when(patientMatchIndex.isEnabled()).thenReturn(true);
+        when(patientMatchIndex.findCandidateIds(any())).thenReturn(Set.of(matchingPatient.getId()));
+        when(patientRepository.findMatchCandidatesByIdIn(Set.of(matchingPatient.getId())))
+                .thenReturn(List.of(MatchCandidate.of(matchingPatient)));
+
+        Map<UUID, MatchScore> result = patientService.autoMatchPatient(patient);
+
+        assertEquals(MatchScore.AUTO_MATCH, result.get(matchingPatient.getId()));
+        verify(patientRepository, never()).findMatchCandidates(any());
+    }
+
+    @Test
+    void mergePatients_dropsDuplicatesBeforeMovingIdentifiers() {
+        UUID discardId = UUID.randomUUID();
+        when(patientRepository.findById(patient.getId())).thenReturn(Optional.of(patient));
+        when(patientRepository.markMerged(discardId)).thenReturn(1);
+        when(patientRepository.findWithIdentifiersById(patient.getId())).thenReturn(Optional.of(patient));
+
+        Patient result = patientService.mergePatients(patient.getId(), discardId);
+
+        assertSame(patient, result);
+        InOrder inOrder = inOrder(patientIdentifierRepository);
+        inOrder.verify(patientIdentifierRepository).deleteDuplicatesOf(patient.getId(), discardId);
+        inOrder.verify(patientIdentifierRepository).movePatientIdentifiers(patient.getId(), discardId);
+        verify(patientMergeHistoryRepository).save(any(PatientMergeHistory.class));
+        verify(eventPublisher).publishEvent(new PatientChangedEvent(discardId, null));
+    }
+
+    @Test
+    void mergePatients_whenDiscardAlreadyMerged_throwsConflict() {
+        UUID discardId = UUID.randomUUID();
+        when(patientRepository.findById(patient.getId())).thenReturn(Optional.of(patient));
+        when(patientRepository.markMerged(discardId)).thenReturn(0);
+        when(patientRepository.existsById(discardId)).thenReturn(true);
+
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> patientService.mergePatients(patient.getId(), discardId));
+
+        assertEquals(409, exception.getStatusCode().value());
+        verifyNoInteractions(patientIdentifierRepository, patientMergeHistoryRepository);
+    }
+
+    @Test
+    void mergePatients_withSelfMerge_throwsBadRequest() {
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> patientService.mergePatients(patient.getId(), patient.getId()));
+
+        assertEquals(400, exception.getStatusCode().value());
+        verifyNoInteractions(patientRepository);
+    }
+
+    @Test
+    void mergePatients_bulkWithChainedMerge_throwsBadRequest() {
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        UUID c = UUID.randomUUID();
+
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> patientService.mergePatients(List.of(mergeRequest(a, b), mergeRequest(b, c))));
+
+        assertEquals(400, exception.getStatusCode().value());
+        verifyNoInteractions(patientRepository, patientIdentifierRepository);
+    }
+
+    private static PatientMergeRequestDTO mergeRequest(UUID keepId, UUID discardId) {
+        PatientMergeRequestDTO request = new PatientMergeRequestDTO();
+        request.setKeepPatientId(keepId);
+        request.setDiscardPatientId(discardId);
+        return request;
+    }
+
+    @Test
+    void getPatientWithIdentifiers_whenCached_usesFindById() {
+        when(patientCacheInspector.isCached(patient.getId())).thenReturn(true);
+        when(patientRepository.findById(patient.getId())).thenReturn(Optional.of(patient));
+
+        Patient result = patientService.getPatientWithIdentifiers(patient.getId());
+
+        assertSame(patient, result);
+        verify(patientRepository, never()).findWithIdentifiersById(any());
+    }
+
+    @Test
+    void updatePatient_withStaleVersion_throwsPreconditionFailed() {
+        patient.setVersion(2L);
+        when(patientRepository.findById(patient.getId())).thenReturn(Optional.of(patient));
+
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> patientService.updatePatient(patient.getId(), dto, 1L));
+
+        assertEquals(412, exception.getStatusCode().value());
+        verify(patientRepository, never()).save(any());
+    }
+
+    @Test
+    void addIdentifier_whenAlreadyPresent_returnsExistingIdentifier() {
+        PatientIdentifier existing = new PatientIdentifier();
+        existing.setIdType(IdentifierType.MRN);
+        existing.setIdValue("MRN-1");
+        existing.setPatient(patient);
+        patient.getIdentifiers().add(existing);
+        NewPatientIdentifierDTO request = new NewPatientIdentifierDTO();
+        request.setIdType(IdentifierType.MRN);
+        request.setIdValue("MRN-1");
+        when(patientRepository.findById(patient.getId())).thenReturn(Optional.of(patient));
+
+        PatientIdentifier result = patientService.addIdentifier(patient.getId(), request);
+
+        assertSame(existing, result);
+        verify(patientRepository, never()).save(any());
     }
 }
@@ -4,22 +4,21 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
-import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.test.util.ReflectionTestUtils;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
-@ExtendWith(MockitoExtension.class)
 class PhoneNumberServiceTest {
 
-    @InjectMocks
+    private static final String GENERATOR_ALPHABET = "0000011112222333344445555666677778888999+-() .\t\u0000abc\u0663\u00a0";
+
     private PhoneNumberService phoneNumberService;
 
     @BeforeEach
     void setUp() {
-        ReflectionTestUtils.setField(phoneNumberService, "countryCode", "+61");
+        phoneNumberService = new PhoneNumberService("+61");
     }
 
     @ParameterizedTest
@@ -74,4 +73,48 @@ class PhoneNumberServiceTest {
     void normalize_startsWithCountryCodeNoPlus_returnsNormalized() {
         assertEquals("+61234567890", phoneNumberService.normalize("61234567890"));
     }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"+61", "61", "1", "+44 ", "0061", "none", ""})
+    void normalize_randomInputs_matchesRegexImplementation(String countryCode) {
+        PhoneNumberService service = new PhoneNumberService(countryCode);
+        Random random = new Random(countryCode.hashCode());
+
+        for (int i = 0; i < 100_000; i++) {
+            StringBuilder input = new StringBuilder();
+            int length = random.nextInt(16);
+            for (int j = 0; j < length; j++) {
+                input.append(GENERATOR_ALPHABET.charAt(random.nextInt(GENERATOR_ALPHABET.length())));
+            }
+            String phoneNumber = input.toString();
+
+            assertEquals(regexNormalize(phoneNumber, countryCode), service.normalize(phoneNumber),
+                    () -> "countryCode=[" + countryCode + "] input=[" + phoneNumber + "]");
+        }
+    }
+
+    private static String regexNormalize(String phoneNumber, String countryCode) {
+        if (phoneNumber == null || phoneNumber.isBlank()) {
+            return phoneNumber;
+        }
+
+        String digits = phoneNumber.replaceAll("[^0-9]", "");
+        boolean hasPlus = phoneNumber.trim().startsWith("+");
+        String cc = countryCode.replaceAll("[^0-9]", "");
+
+        if (hasPlus) {
+            return "+" + digits;
+        }
+        if (digits.startsWith(cc)) {
+            return "+" + digits;
+        }
+        if (digits.length() == 9 && digits.startsWith("4")) {
+            return "+" + cc + digits;
+        }
+        if (digits.length() == 10 && digits.startsWith("0")) {
+            return "+" + cc + digits.substring(1);
+        }
+
+        return phoneNumber;
+    }
 }
@@ -0,0 +1,44 @@
+package xs.test2.shared;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NameKeysTest {
+
+    @Test
+    void nameKey_ignoresCaseWhitespaceAndPunctuation() {
+        assertThat(NameKeys.nameKey("JOHN ", " Smith")).isEqualTo(NameKeys.nameKey("john", "smith"));
+        assertThat(NameKeys.nameKey("Sean", "O'Brien")).isEqualTo("sean obrien");
+        assertThat(NameKeys.nameKey("Zoë", "Müller")).isEqualTo("zoe muller");
+    }
+
+    @Test
+    void nameKey_keepsLettersOfOtherScripts() {
+        assertThat(NameKeys.nameKey("Иван", "Петров")).isEqualTo("иван петров");
+        assertThat(NameKeys.nameKey("李", "王")).isEqualTo("李 王");
+        assertThat(NameKeys.nameKey("Łukasz", "Øster")).isEqualTo("łukasz øster");
+        assertThat(NameKeys.nameKey("Иван", "Петров")).isNotEqualTo(NameKeys.nameKey("Олег", "Петров"));
+    }
+
+    @Test
+    void nameKey_keepsSpellingDifferences() {
+        assertThat(NameKeys.nameKey("Jon", "Smith")).isNotEqualTo(NameKeys.nameKey("John", "Smith"));
+    }
+
+    @Test
+    void phoneticKey_matchesSoundAlikeNames() {
+        assertThat(NameKeys.phoneticKey("Jon", "Smith")).isEqualTo(NameKeys.phoneticKey("JOHN", "SMITH "));
+        assertThat(NameKeys.phoneticKey("John", "Smyth")).isEqualTo(NameKeys.phoneticKey("John", "Smith"));
+        assertThat(NameKeys.phoneticKey("Catherine", "Nguyen")).isEqualTo(NameKeys.phoneticKey("Kathryn", "Nguyen"));
+        assertThat(NameKeys.phoneticKey("John", "Smith")).isNotEqualTo(NameKeys.phoneticKey("Jane", "Doe"));
+    }
+
+    @Test
+    void phoneticKey_requiresBothNames() {
+        assertThat(NameKeys.phoneticKey("John", null)).isNull();
+        assertThat(NameKeys.phoneticKey("John", "--")).isNull();
+        assertThat(NameKeys.phoneticKey(null, "Smith")).isNull();
+        assertThat(NameKeys.phoneticKey("Иван", "Петров")).isNull();
+    }
+}
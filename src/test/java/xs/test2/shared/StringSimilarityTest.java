@@ -0,0 +1,88 @@
+package xs.test2.shared;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class StringSimilarityTest {
+
+    @Test
+    void jaroWinkler_matchesReferenceValues() {
+        assertThat(StringSimilarity.jaroWinkler("martha", "marhta")).isCloseTo(0.9611, within(1e-4));
+        assertThat(StringSimilarity.jaroWinkler("dwayne", "duane")).isCloseTo(0.84, within(1e-4));
+        assertThat(StringSimilarity.jaroWinkler("dixon", "dicksonx")).isCloseTo(0.8133, within(1e-4));
+        assertThat(StringSimilarity.jaroWinkler("same", "same")).isEqualTo(1.0);
+        assertThat(StringSimilarity.jaroWinkler("", "abc")).isZero();
+        assertThat(StringSimilarity.jaroWinkler("abc", "xyz")).isZero();
+    }
+
+    @Test
+    void jaroWinkler_returnsZeroBelowThreshold() {
+        assertThat(StringSimilarity.jaroWinkler("dwayne", "duane", 0.8)).isCloseTo(0.84, within(1e-4));
+        assertThat(StringSimilarity.jaroWinkler("dwayne", "duane", 0.9)).isZero();
+        assertThat(StringSimilarity.jaroWinkler("ab", "abcdefghij", 0.9)).isZero();
+    }
+
+    @Test
+    void jaroWinkler_comparesIndexRangesLikeSubstrings() {
+        assertThat(StringSimilarity.jaroWinkler("martha smith", 0, 6, "marhta smith", 0, 6, 0.0))
+                .isEqualTo(StringSimilarity.jaroWinkler("martha", "marhta"));
+        assertThat(StringSimilarity.jaroWinkler("dixon x", 0, 5, "a dicksonx", 2, 10, 0.0))
+                .isEqualTo(StringSimilarity.jaroWinkler("dixon", "dicksonx"));
+        assertThat(StringSimilarity.jaroWinkler("same a", 0, 4, "b same", 2, 6, 0.0)).isEqualTo(1.0);
+    }
+
+    @Test
+    void comparisons_doNotAllocateOnceWarm() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Runnable compare = () -> {
+            for (int i = 0; i < 10_000; i++) {
+                StringSimilarity.jaroWinkler("catherine oakes", 0, 9, "katherine oakes", 0, 9, 0.0);
+                StringSimilarity.levenshtein("john@example.com", "john@exmple.com", 1);
+            }
+        };
+        compare.run();
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        compare.run();
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        assertThat(allocated).isLessThan(1024);
+    }
+
+    @Test
+    void levenshtein_stopsAtMaxDistance() {
+        assertThat(StringSimilarity.levenshtein("kitten", "sitting", 5)).isEqualTo(3);
+        assertThat(StringSimilarity.levenshtein("kitten", "sitting", 2)).isEqualTo(3);
+        assertThat(StringSimilarity.levenshtein("john@example.com", "john@exmple.com", 1)).isEqualTo(1);
+        assertThat(StringSimilarity.levenshtein("", "ab", 2)).isEqualTo(2);
+        assertThat(StringSimilarity.levenshtein("a", "abcdef", 2)).isEqualTo(3);
+    }
+
+    @Test
+    void kernels_agreeOnRandomStrings() {
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            String a = randomString(random);
+            String b = random.nextBoolean() ? a.substring(random.nextInt(a.length() + 1)) + randomString(random)
+                    : randomString(random);
+
+            assertThat(StringSimilarity.jaroWinkler(StringSimilarity.KERNEL, a, b, 0.0))
+                    .as("%s / %s", a, b)
+                    .isEqualTo(StringSimilarity.jaroWinkler(StringSimilarity.SCALAR, a, b, 0.0));
+        }
+    }
+
+    private static String randomString(Random random) {
+        char[] chars = new char[random.nextInt(40)];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) ('a' + random.nextInt(4));
+        }
+        return new String(chars);
+    }
+}
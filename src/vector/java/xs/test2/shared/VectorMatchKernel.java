@@ -0,0 +1,40 @@
+package xs.test2.shared;
+
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Jaro match search on the Vector API: each character of the first string is compared with a
+ * full vector of the second string's window at once, and the first unmatched hit is taken.
+ * Only loaded by {@link StringSimilarity} when the jdk.incubator.vector module is present.
+ */
+final class VectorMatchKernel implements StringSimilarity.MatchKernel {
+
+    private static final VectorSpecies<Short> SPECIES = ShortVector.SPECIES_PREFERRED;
+
+    @Override
+    public int match(char[] first, int firstLength, char[] second, int secondLength,
+            boolean[] firstMatched, boolean[] secondMatched, int window) {
+        int matches = 0;
+        for (int i = 0; i < firstLength; i++) {
+            int end = Math.min(secondLength, i + window + 1);
+            short c = (short) first[i];
+            for (int j = Math.max(0, i - window); j < end; j += SPECIES.length()) {
+                VectorMask<Short> inWindow = SPECIES.indexInRange(j, end);
+                int lane = ShortVector.fromCharArray(SPECIES, second, j, inWindow)
+                        .eq(c)
+                        .and(inWindow)
+                        .andNot(VectorMask.fromArray(SPECIES, secondMatched, j))
+                        .firstTrue();
+                if (lane < SPECIES.length()) {
+                    firstMatched[i] = true;
+                    secondMatched[j + lane] = true;
+                    matches++;
+                    break;
+                }
+            }
+        }
+        return matches;
+    }
+}